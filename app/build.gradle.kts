@@ -1,3 +1,11 @@
+import java.awt.RenderingHints
+import java.awt.image.BufferedImage
+import java.io.ByteArrayOutputStream
+import javax.imageio.ImageIO
+import javax.inject.Inject
+import kotlin.math.roundToInt
+import org.gradle.process.ExecOperations
+
 plugins {
     id("com.android.application")
 }
@@ -29,6 +37,16 @@ android {
     buildFeatures {
         viewBinding = true
     }
+    testOptions {
+        unitTests {
+            isIncludeAndroidResources = true
+            // Order counts for the query latency suite, e.g. -Pcafeeight.perfSizes=10000,100000,1000000
+            all {
+                it.systemProperty("cafeeight.perfSizes", project.findProperty("cafeeight.perfSizes") ?: "10000,100000")
+                it.maxHeapSize = "2g"
+            }
+        }
+    }
 }
 
 dependencies {
@@ -37,6 +55,7 @@ dependencies {
     implementation("androidx.appcompat:appcompat:1.6.1")
     implementation("com.google.android.material:material:1.9.0")
     implementation("androidx.constraintlayout:constraintlayout:2.1.4")
+    implementation("androidx.viewpager2:viewpager2:1.0.0")
     implementation("com.android.car.ui:car-ui-lib:2.5.1")
     implementation("androidx.lifecycle:lifecycle-livedata-ktx:2.6.1")
     implementation("androidx.lifecycle:lifecycle-viewmodel-ktx:2.6.1")
@@ -44,10 +63,196 @@ dependencies {
     implementation("androidx.navigation:navigation-ui:2.5.3")
     implementation("com.google.android.gms:play-services-nearby:18.3.0")
     testImplementation("junit:junit:4.13.2")
+    testImplementation("org.robolectric:robolectric:4.10.3")
+    testImplementation("androidx.test:core:1.5.0")
     androidTestImplementation("androidx.test.ext:junit:1.1.5")
     androidTestImplementation("androidx.test.espresso:espresso-core:3.5.1")
     implementation ("org.jetbrains.kotlin:kotlin-stdlib-jdk7:1.7.20")
     implementation ("org.jetbrains.kotlin:kotlin-stdlib-jdk8:1.8.10")
 
 
-}
\ No newline at end of file
+}
+
+// Product images are kept full size in src/main/productImages and shipped as density-bucketed drawables built from them.
+// Budgets can be set per build, e.g. -Pcafeeight.imageMaxVariantBytes=40000. The build needs cwebp; a local
+// build without it can pass -Pcafeeight.requireWebp=false to ship scaled PNGs checked against the PNG budget.
+val cwebpCommand = providers.gradleProperty("cafeeight.cwebp").orElse("cwebp")
+val optimizeProductImages = tasks.register<OptimizeProductImages>("optimizeProductImages") {
+    sourceDir.set(layout.projectDirectory.dir("src/main/productImages"))
+    outputDir.set(layout.buildDirectory.dir("generated/productImages/res"))
+    // Largest size a product image is shown at; the same default as Class_ImageLoader, above the 98dp grid cells
+    displaySizeDp.set(128)
+    webpQuality.set(providers.gradleProperty("cafeeight.webpQuality").map(String::toInt).orElse(80))
+    maxSourcePixels.set(providers.gradleProperty("cafeeight.imageMaxSourcePixels").map(String::toLong).orElse(1024L * 1024L))
+    maxSourceBytes.set(providers.gradleProperty("cafeeight.imageMaxSourceBytes").map(String::toLong).orElse(256L * 1024L))
+    maxVariantBytes.set(providers.gradleProperty("cafeeight.imageMaxVariantBytes").map(String::toLong).orElse(64L * 1024L))
+    maxPngVariantBytes.set(providers.gradleProperty("cafeeight.imageMaxPngVariantBytes").map(String::toLong).orElse(192L * 1024L))
+    requireWebp.set(providers.gradleProperty("cafeeight.requireWebp").map(String::toBoolean).orElse(true))
+    cwebpPath.set(cwebpCommand)
+    // An input, so installing or upgrading cwebp reruns the task instead of keeping the old output
+    cwebpVersion.set(providers.of(CwebpVersionSource::class) { parameters.cwebpPath.set(cwebpCommand) })
+}
+
+androidComponents {
+    onVariants { variant ->
+        variant.sources.res?.addGeneratedSourceDirectory(optimizeProductImages, OptimizeProductImages::outputDir)
+    }
+}
+
+/**
+ * Writes a copy of every product image for each screen density, scaled to
+ * the size it is shown at and recompressed as lossy WebP, and fails the
+ * build when a source image or a generated copy is over its budget. Fails
+ * when cwebp is missing, unless requireWebp is turned off; the copies are
+ * then scaled PNGs held to their own, larger budget.
+ */
+abstract class OptimizeProductImages : DefaultTask() {
+
+    @get:InputDirectory
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val sourceDir: DirectoryProperty
+
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    @get:Input
+    abstract val displaySizeDp: Property<Int>
+
+    @get:Input
+    abstract val webpQuality: Property<Int>
+
+    @get:Input
+    abstract val maxSourcePixels: Property<Long>
+
+    @get:Input
+    abstract val maxSourceBytes: Property<Long>
+
+    @get:Input
+    abstract val maxVariantBytes: Property<Long>
+
+    // Budget of each copy when cwebp is missing and the copies stay lossless PNG
+    @get:Input
+    abstract val maxPngVariantBytes: Property<Long>
+
+    @get:Input
+    abstract val requireWebp: Property<Boolean>
+
+    @get:Input
+    abstract val cwebpPath: Property<String>
+
+    // What cwebp -version prints, or empty when cwebp is not installed
+    @get:Input
+    abstract val cwebpVersion: Property<String>
+
+    @get:Inject
+    abstract val execOperations: ExecOperations
+
+    @TaskAction
+    fun optimize() {
+        // Density buckets and their scale over mdpi
+        val densities = listOf("mdpi" to 1.0, "hdpi" to 1.5, "xhdpi" to 2.0, "xxhdpi" to 3.0, "xxxhdpi" to 4.0)
+        val output = outputDir.get().asFile
+        output.deleteRecursively()
+
+        val webp = cwebpVersion.get().isNotEmpty()
+        if (!webp) {
+            if (requireWebp.get()) {
+                throw GradleException("cwebp not found at '${cwebpPath.get()}'; install libwebp or set -Pcafeeight.cwebp")
+            }
+            logger.warn("cwebp not found at '${cwebpPath.get()}'; product images are scaled but left as PNG " +
+                "and checked against the PNG budget of ${maxPngVariantBytes.get()} bytes instead of ${maxVariantBytes.get()}")
+        }
+        val variantBudget = if (webp) maxVariantBytes.get() else maxPngVariantBytes.get()
+
+        val failures = mutableListOf<String>()
+        val sources = sourceDir.get().asFile.listFiles { file -> file.extension == "png" }.orEmpty().sortedBy { it.name }
+        for (source in sources) {
+            if (source.length() > maxSourceBytes.get()) {
+                failures += "${source.name}: ${source.length()} bytes, budget ${maxSourceBytes.get()}"
+            }
+            val image = ImageIO.read(source) ?: throw GradleException("${source.name} could not be read as an image")
+            if (image.width.toLong() * image.height > maxSourcePixels.get()) {
+                failures += "${source.name}: ${image.width}x${image.height} px, budget ${maxSourcePixels.get()} px"
+            }
+
+            for ((bucket, scale) in densities) {
+                // Never scaled up; a bucket above the source size gets the source pixels
+                val longestSide = minOf((displaySizeDp.get() * scale).roundToInt(), maxOf(image.width, image.height))
+                val scaled = scaleDown(image, longestSide)
+                val bucketDir = File(output, "drawable-$bucket").apply { mkdirs() }
+                val variant = if (webp) {
+                    encodeWebp(scaled, File(bucketDir, source.nameWithoutExtension + ".webp"))
+                } else {
+                    writePng(scaled, File(bucketDir, source.name))
+                }
+                if (variant.length() > variantBudget) {
+                    failures += "drawable-$bucket/${variant.name}: ${variant.length()} bytes, budget $variantBudget"
+                }
+            }
+        }
+
+        if (failures.isNotEmpty()) {
+            throw GradleException("Product images over budget:\n  " + failures.joinToString("\n  "))
+        }
+    }
+
+    // Halve until within twice the target, then one last bicubic step, so no source pixels are skipped
+    private fun scaleDown(image: BufferedImage, longestSide: Int): BufferedImage {
+        var current = image
+        while (maxOf(current.width, current.height) > longestSide) {
+            val ratio = maxOf(0.5, longestSide.toDouble() / maxOf(current.width, current.height))
+            val width = maxOf(1, (current.width * ratio).roundToInt())
+            val height = maxOf(1, (current.height * ratio).roundToInt())
+            val next = BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB)
+            val graphics = next.createGraphics()
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC)
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY)
+            graphics.drawImage(current, 0, 0, width, height, null)
+            graphics.dispose()
+            current = next
+        }
+        return current
+    }
+
+    private fun writePng(image: BufferedImage, target: File): File {
+        if (!ImageIO.write(image, "png", target)) {
+            throw GradleException("No PNG writer available for ${target.name}")
+        }
+        return target
+    }
+
+    private fun encodeWebp(image: BufferedImage, target: File): File {
+        val png = writePng(image, File(temporaryDir, target.parentFile.name + "-" + target.nameWithoutExtension + ".png"))
+        execOperations.exec {
+            commandLine(cwebpPath.get(), "-quiet", "-q", webpQuality.get().toString(), "-alpha_q", "90", "-m", "6",
+                png.path, "-o", target.path)
+        }
+        return target
+    }
+}
+
+/**
+ * Reads the version of the installed cwebp at configuration time, so the
+ * image task reruns when cwebp appears, disappears or changes version.
+ */
+abstract class CwebpVersionSource : ValueSource<String, CwebpVersionSource.Parameters> {
+
+    interface Parameters : ValueSourceParameters {
+        val cwebpPath: Property<String>
+    }
+
+    @get:Inject
+    abstract val execOperations: ExecOperations
+
+    override fun obtain(): String = try {
+        val output = ByteArrayOutputStream()
+        val result = execOperations.exec {
+            commandLine(parameters.cwebpPath.get(), "-version")
+            standardOutput = output
+            isIgnoreExitValue = true
+        }
+        if (result.exitValue == 0) output.toString().trim() else ""
+    } catch (e: Exception) {
+        "" // Not installed
+    }
+}
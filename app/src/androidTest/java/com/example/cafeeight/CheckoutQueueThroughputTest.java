@@ -0,0 +1,127 @@
+package com.example.cafeeight;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Measures checkout throughput with one transaction per order versus
+ * group-committed batches, using several registers submitting at once.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CheckoutQueueThroughputTest {
+
+    private static final String TEST_DATABASE_NAME = "CafeEightCheckoutTestDB";
+    private static final int REGISTERS = 4;
+    private static final int ORDERS_PER_REGISTER = 250;
+
+    private Context context;
+    private DatabaseHelper databaseHelper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DATABASE_NAME);
+        databaseHelper = new DatabaseHelper(context, TEST_DATABASE_NAME);
+        databaseHelper.getWritableDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+        context.deleteDatabase(TEST_DATABASE_NAME);
+    }
+
+    @Test
+    public void batching_increasesOrdersPerSecond() throws Exception {
+        double unbatched = measureOrdersPerSecond(1, 0);
+        double batched = measureOrdersPerSecond(32, 10);
+
+        Log.i("CheckoutQueueThroughput", String.format("unbatched: %.0f orders/s, batched: %.0f orders/s (%.1fx)",
+                unbatched, batched, batched / unbatched));
+
+        assertTrue("Group commit should write more orders per second", batched > unbatched);
+    }
+
+    @Test
+    public void everyOrderGetsItsOwnId() throws Exception {
+        Class_CheckoutQueue queue = new Class_CheckoutQueue(databaseHelper, 8, 5);
+        List<CompletableFuture<Long>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(queue.submit(newOrder(i)));
+        }
+
+        List<Long> orderIds = new ArrayList<>();
+        for (CompletableFuture<Long> result : results) {
+            long orderId = result.get(5, TimeUnit.SECONDS);
+            assertNotEquals(-1L, orderId);
+            orderIds.add(orderId);
+        }
+        queue.shutdown();
+
+        List<Long> sortedIds = new ArrayList<>(orderIds);
+        Collections.sort(sortedIds);
+        assertEquals("Ids follow submission order", sortedIds, orderIds);
+        assertEquals("Ids are unique", orderIds.size(), new java.util.HashSet<>(orderIds).size());
+    }
+
+    private double measureOrdersPerSecond(int maxBatchSize, long maxDelayMillis) throws Exception {
+        Class_CheckoutQueue queue = new Class_CheckoutQueue(databaseHelper, maxBatchSize, maxDelayMillis);
+        List<CompletableFuture<Long>> results = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> registers = new ArrayList<>();
+
+        for (int r = 0; r < REGISTERS; r++) {
+            Thread register = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < ORDERS_PER_REGISTER; i++) {
+                    results.add(queue.submit(newOrder(i)));
+                }
+            });
+            register.start();
+            registers.add(register);
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Thread register : registers) {
+            register.join();
+        }
+        for (CompletableFuture<Long> result : results) {
+            assertNotEquals(-1L, (long) result.get(30, TimeUnit.SECONDS));
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        queue.shutdown();
+
+        return results.size() / (elapsedNanos / 1e9);
+    }
+
+    private static Class_CheckoutOrder newOrder(int i) {
+        List<Class_CartItem> items = new ArrayList<>();
+        items.add(new Class_CartItem(102, "Latte", 1 + i % 3, Class_Money.ofPesos(90), 0));
+        items.add(new Class_CartItem(101, "Brewed", 1, Class_Money.ofPesos(55), 0));
+        int totalItems = items.get(0).getQuantity() + 1;
+        Class_Money totalAmount = items.get(0).getTotalPrice().plus(items.get(1).getTotalPrice());
+        return new Class_CheckoutOrder(totalAmount, totalItems, items);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.cafeeight;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares per-operation latency of the old open/close-per-call pattern with
+ * the shared, long-lived WAL connection.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseHelperLatencyTest {
+
+    private static final String TEST_DATABASE_NAME = "CafeEightLatencyTestDB";
+    private static final int OPERATIONS = 200;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DATABASE_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(TEST_DATABASE_NAME);
+    }
+
+    @Test
+    public void sharedConnection_isFasterThanOpenClosePerCall() {
+        // Warm up and create the schema once so neither run pays for onCreate
+        DatabaseHelper schemaHelper = new DatabaseHelper(context, TEST_DATABASE_NAME);
+        schemaHelper.getWritableDatabase();
+        schemaHelper.close();
+
+        long openCloseNanos = measureOpenClosePerCall();
+        long sharedNanos = measureSharedConnection();
+
+        double openCloseMicros = openCloseNanos / 1000.0 / OPERATIONS;
+        double sharedMicros = sharedNanos / 1000.0 / OPERATIONS;
+        Log.i("DatabaseHelperLatency", String.format("open/close per call: %.1f us/op, shared connection: %.1f us/op (%.1fx)",
+                openCloseMicros, sharedMicros, openCloseMicros / sharedMicros));
+
+        assertTrue("Shared connection should be faster than opening and closing per call",
+                sharedNanos < openCloseNanos);
+    }
+
+    // The previous pattern: build a helper, open the database, run one read and close it again
+    private long measureOpenClosePerCall() {
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            DatabaseHelper helper = new DatabaseHelper(context, TEST_DATABASE_NAME);
+            SQLiteDatabase db = helper.getReadableDatabase();
+            helper.getTodaySalesData();
+            db.close();
+            helper.close();
+        }
+        return System.nanoTime() - start;
+    }
+
+    // The current pattern: one helper whose connection stays open for every call
+    private long measureSharedConnection() {
+        DatabaseHelper helper = new DatabaseHelper(context, TEST_DATABASE_NAME);
+        helper.getReadableDatabase();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            helper.getTodaySalesData();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        helper.close();
+        return elapsed;
+    }
+}
@@ -14,7 +14,7 @@ public class Activity_Login extends AppCompatActivity {
 
     private EditText email, password;
     private Button btnlogin;
-    private DatabaseHelper DB;
+    private Class_CafeRepository repository;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -24,7 +24,7 @@ public class Activity_Login extends AppCompatActivity {
         email = findViewById(R.id.TextEmail);
         password = findViewById(R.id.TextPassword);
         btnlogin = findViewById(R.id.buttonLogin);
-        DB = new DatabaseHelper(this);
+        repository = Class_CafeRepository.getInstance(this);
 
         btnlogin.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -35,19 +35,20 @@ public class Activity_Login extends AppCompatActivity {
                 if (TextUtils.isEmpty(user) || TextUtils.isEmpty(pass)) {
                     Toast.makeText(Activity_Login.this, "Please enter all the fields", Toast.LENGTH_SHORT).show();
                 } else {
-                    boolean checkUserPass = DB.checkEmailPassword(user, pass);
-                    if (checkUserPass) {
-                        Toast.makeText(Activity_Login.this, "Sign In Successful", Toast.LENGTH_SHORT).show();
+                    repository.checkEmailPassword(user, pass).observe(Activity_Login.this, checkUserPass -> {
+                        if (checkUserPass) {
+                            Toast.makeText(Activity_Login.this, "Sign In Successful", Toast.LENGTH_SHORT).show();
 
-                        // Start the main activity after successful login
-                        Intent intent = new Intent(Activity_Login.this, Activity_Main.class);
-                        startActivity(intent);
+                            // Start the main activity after successful login
+                            Intent intent = new Intent(Activity_Login.this, Activity_Main.class);
+                            startActivity(intent);
 
-                        // Finish the current login activity so that pressing the back button doesn't go back to it
-                        finish();
-                    } else {
-                        Toast.makeText(Activity_Login.this, "Invalid Credentials", Toast.LENGTH_SHORT).show();
-                    }
+                            // Finish the current login activity so that pressing the back button doesn't go back to it
+                            finish();
+                        } else {
+                            Toast.makeText(Activity_Login.this, "Invalid Credentials", Toast.LENGTH_SHORT).show();
+                        }
+                    });
                 }
             }
         });
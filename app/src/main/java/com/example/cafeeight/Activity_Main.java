@@ -7,14 +7,19 @@ import com.google.android.material.bottomnavigation.BottomNavigationView;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.RecyclerView;
 
 public class Activity_Main extends AppCompatActivity {
 
     private BottomNavigationView bottomNavigationView;
     private final Fragment_Dashboard fragmentDashboard = new Fragment_Dashboard();
-    private final Fragment_HotCoffee fragmentOrders = new Fragment_HotCoffee();
+    private final Fragment_Orders fragmentOrders = new Fragment_Orders();
     private final Fragment_Transactions fragmentTransaction = new Fragment_Transactions();
     private final Fragment_Profile fragmentProfile = new Fragment_Profile();
+    // Product panel shared by every category grid
+    private Class_ProductSheet productSheet;
+    // Product cells shared by every category grid, so switching categories reuses inflated cells
+    private final RecyclerView.RecycledViewPool productGridPool = Class_ProductGridAdapter.createSharedPool();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -25,6 +30,9 @@ public class Activity_Main extends AppCompatActivity {
 
         bottomNavigationView = findViewById(R.id.bottom_navigation);
 
+        // Inflate the product panel up front so the first tap on a drink is as fast as the rest
+        productSheet = new Class_ProductSheet(this);
+
         getSupportFragmentManager().beginTransaction().replace(R.id.fragment_container, fragmentDashboard).commit();
 
         bottomNavigationView.setOnItemSelectedListener(new BottomNavigationView.OnItemSelectedListener() {
@@ -48,6 +56,22 @@ public class Activity_Main extends AppCompatActivity {
 //For Upload Test
 // -------------------- DataBase ------------------------
     }
+
+    @Override
+    protected void onDestroy() {
+        productSheet.dismiss();
+        super.onDestroy();
+    }
+
+    // Get the product panel; category grids show it instead of starting an activity
+    public Class_ProductSheet getProductSheet() {
+        return productSheet;
+    }
+
+    public RecyclerView.RecycledViewPool getProductGridPool() {
+        return productGridPool;
+    }
+
     private void loadFragment(Fragment fragment) {
         getSupportFragmentManager().beginTransaction()
                 .replace(R.id.fragment_container, fragment)
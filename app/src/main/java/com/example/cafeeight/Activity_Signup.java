@@ -14,7 +14,7 @@ public class Activity_Signup extends AppCompatActivity {
 
     private EditText email, password, repassword;
     private Button signup, signin;
-    private DatabaseHelper DB;
+    private Class_CafeRepository repository;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -26,7 +26,7 @@ public class Activity_Signup extends AppCompatActivity {
         repassword = findViewById(R.id.TextRePassword);
         signup = findViewById(R.id.buttonSignUp);
         signin = findViewById(R.id.buttonLogin);
-        DB = new DatabaseHelper(this);
+        repository = Class_CafeRepository.getInstance(this);
 
         signup.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -40,17 +40,16 @@ public class Activity_Signup extends AppCompatActivity {
                 } else if (!pass.equals(repass)) {
                     Toast.makeText(Activity_Signup.this, "Password not matching!", Toast.LENGTH_SHORT).show();
                 } else {
-                    if (DB.checkEmail(user)) {
-                        Toast.makeText(Activity_Signup.this, "User Already Exist! Please sign in", Toast.LENGTH_SHORT).show();
-                    } else {
-                        // Corrected method call
-                        DB.insertData(user, pass);
+                    repository.registerUser(user, pass).observe(Activity_Signup.this, registered -> {
+                        if (!registered) {
+                            Toast.makeText(Activity_Signup.this, "User Already Exist! Please sign in", Toast.LENGTH_SHORT).show();
+                        } else {
+                            Toast.makeText(Activity_Signup.this, "Registered successfully", Toast.LENGTH_SHORT).show();
 
-                        Toast.makeText(Activity_Signup.this, "Registered successfully", Toast.LENGTH_SHORT).show();
-
-                        // Finish the current signup activity so that pressing the back button doesn't go back to it
-                        finish();
-                    }
+                            // Finish the current signup activity so that pressing the back button doesn't go back to it
+                            finish();
+                        }
+                    });
                 }
             }
         });
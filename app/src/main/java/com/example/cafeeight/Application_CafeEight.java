@@ -0,0 +1,37 @@
+package com.example.cafeeight;
+
+import android.app.Application;
+import android.content.pm.ApplicationInfo;
+import android.os.StrictMode;
+
+public class Application_CafeEight extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        // In debug builds, crash on any disk access from the main thread so it is caught early
+        boolean isDebuggable = (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        if (isDebuggable) {
+            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                    .detectDiskReads()
+                    .detectDiskWrites()
+                    .penaltyLog()
+                    .penaltyDeath()
+                    .build());
+        }
+
+        // Start loading the menu in the background; screens and the cart restore wait for it
+        Class_ProductCatalog.getInstance(this).start();
+
+        // Bring back a cart that was in progress when the process was killed
+        Class_CartStore.getInstance(this).start();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // Decoded product images can be decoded again; give their memory back first
+        Class_ImageLoader.getInstance(this).onTrimMemory(level);
+    }
+}
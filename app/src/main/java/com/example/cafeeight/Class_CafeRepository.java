@@ -0,0 +1,234 @@
+package com.example.cafeeight;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs every DatabaseHelper call on a bounded background executor and
+ * publishes the results through LiveData, so screens never touch the disk
+ * from the main thread.
+ */
+public class Class_CafeRepository {
+
+    private static final String TAG = "Class_CafeRepository";
+
+    // Two threads let a read run while a checkout is being written (the database is in WAL mode)
+    private static final int THREAD_COUNT = 2;
+    private static final int QUEUE_CAPACITY = 64;
+
+    // Checkouts arriving within this window are committed together
+    private static final int CHECKOUT_BATCH_SIZE = 16;
+    private static final long CHECKOUT_MAX_DELAY_MILLIS = 10;
+
+    private static final String EXPORT_DIRECTORY = "exports";
+
+    private static Class_CafeRepository instance;
+
+    private final Context appContext;
+    private final DatabaseHelper databaseHelper;
+    private final ThreadPoolExecutor executor;
+    private final Class_CheckoutQueue checkoutQueue;
+
+    private Class_CafeRepository(Context context) {
+        this.appContext = context.getApplicationContext();
+        this.databaseHelper = DatabaseHelper.getInstance(appContext);
+        this.executor = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), new DatabaseThreadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.checkoutQueue = new Class_CheckoutQueue(databaseHelper, CHECKOUT_BATCH_SIZE, CHECKOUT_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * Gets the process-wide repository.
+     *
+     * @param context Any context; only the application context is kept.
+     * @return The shared repository.
+     */
+    public static synchronized Class_CafeRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new Class_CafeRepository(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Checks whether an email and password match a registered user.
+     *
+     * @return LiveData receiving true if the credentials are valid.
+     */
+    public LiveData<Boolean> checkEmailPassword(String email, String password) {
+        return submit(() -> databaseHelper.checkEmailPassword(email, password), false);
+    }
+
+    /**
+     * Registers a user unless the email is already taken.
+     *
+     * @return LiveData receiving true if the user was inserted, false if the email already exists.
+     */
+    public LiveData<Boolean> registerUser(String email, String password) {
+        return submit(() -> {
+            if (databaseHelper.checkEmail(email)) {
+                return false;
+            }
+            databaseHelper.insertData(email, password);
+            return true;
+        }, false);
+    }
+
+    /**
+     * Checks out a cart: saves its order and closes the cart once the order is
+     * written, whether or not the screen that started it is still shown. A
+     * cart whose order is already being written is not submitted again.
+     *
+     * @param cart The snapshot to charge; its items and totals are saved as they are.
+     * @return LiveData receiving the new order id, or -1 on failure or if the cart is already being checked out.
+     */
+    public LiveData<Long> checkOutCart(Class_CartManager.Snapshot cart) {
+        Class_CartManager cartManager = Class_CartManager.getInstance();
+        int cartNumber = cart.getCartNumber();
+        MutableLiveData<Long> result = new MutableLiveData<>();
+        if (!cartManager.beginCheckout(cartNumber)) {
+            result.setValue(-1L);
+            return result;
+        }
+        checkoutQueue.submit(new Class_CheckoutOrder(cart.getTotalAmount(), cart.getTotalQuantity(), cart.getItems(),
+                        cart.getAdjustments()))
+                .whenComplete((orderId, error) -> {
+                    cartManager.endCheckout(cartNumber, error == null);
+                    result.postValue(error == null ? orderId : -1L);
+                });
+        return result;
+    }
+
+    /**
+     * Loads daily sales totals from the rollup table.
+     *
+     * @return LiveData receiving one total per day starting at fromDay.
+     */
+    public LiveData<double[]> getDailySalesTotals(long fromDay, int dayCount) {
+        return submit(() -> databaseHelper.getDailySalesTotals(fromDay, dayCount), new double[dayCount]);
+    }
+
+    /**
+     * Loads one page of orders older than beforeOrderId.
+     *
+     * @return LiveData receiving the page, newest first.
+     */
+    public LiveData<List<Order>> getConfirmedOrdersPage(long beforeOrderId, int limit) {
+        return submit(() -> databaseHelper.getConfirmedOrdersPage(beforeOrderId, limit), Collections.<Order>emptyList());
+    }
+
+    /**
+     * Loads every order newer than afterOrderId.
+     *
+     * @return LiveData receiving the new orders, newest first.
+     */
+    public LiveData<List<Order>> getOrdersNewerThan(long afterOrderId) {
+        return submit(() -> databaseHelper.getOrdersNewerThan(afterOrderId), Collections.<Order>emptyList());
+    }
+
+    /**
+     * Streams the orders placed in [fromMillis, toMillis) to a new file in the
+     * app's exports directory without loading them into memory.
+     *
+     * @return LiveData receiving progress updates; the last one carries the file or the failure.
+     */
+    public LiveData<Class_OrderExporter.Progress> exportOrders(long fromMillis, long toMillis, Class_OrderExporter.Format format) {
+        MutableLiveData<Class_OrderExporter.Progress> progress = new MutableLiveData<>();
+        try {
+            executor.execute(() -> {
+                long totalRows = 0;
+                try {
+                    totalRows = databaseHelper.countOrders(fromMillis, toMillis);
+                    progress.postValue(new Class_OrderExporter.Progress(0, totalRows, null, false));
+
+                    File outputFile = new File(getExportDirectory(),
+                            "orders_" + new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date()) + "." + format.getExtension());
+                    long exportedRows = Class_OrderExporter.export(databaseHelper.queryOrdersForExport(fromMillis, toMillis),
+                            totalRows, outputFile, format,
+                            (rows, total) -> progress.postValue(new Class_OrderExporter.Progress(rows, total, null, false)));
+                    progress.postValue(new Class_OrderExporter.Progress(exportedRows, totalRows, outputFile, false));
+                } catch (Exception e) {
+                    Log.e(TAG, "Order export failed: " + e.getMessage());
+                    progress.postValue(new Class_OrderExporter.Progress(0, totalRows, null, true));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            Log.e(TAG, "Database queue is full, dropping export");
+            progress.postValue(new Class_OrderExporter.Progress(0, 0, null, true));
+        }
+        return progress;
+    }
+
+    /**
+     * Gets the tracker that announces committed changes to orders and sales rollups.
+     *
+     * @return The invalidation tracker of the shared database.
+     */
+    public Class_InvalidationTracker getInvalidationTracker() {
+        return databaseHelper.getInvalidationTracker();
+    }
+
+    // App-specific storage needs no permission and is readable over USB; fall back to internal storage
+    private File getExportDirectory() throws IOException {
+        File directory = appContext.getExternalFilesDir(EXPORT_DIRECTORY);
+        if (directory == null) {
+            directory = new File(appContext.getFilesDir(), EXPORT_DIRECTORY);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        return directory;
+    }
+
+    // Run the task in the background and post its result, falling back if it fails or the queue is full
+    private <T> LiveData<T> submit(Callable<T> task, T fallback) {
+        MutableLiveData<T> result = new MutableLiveData<>();
+        try {
+            executor.execute(() -> {
+                T value;
+                try {
+                    value = task.call();
+                } catch (Exception e) {
+                    Log.e(TAG, "Database task failed: " + e.getMessage());
+                    value = fallback;
+                }
+                result.postValue(value);
+            });
+        } catch (RejectedExecutionException e) {
+            Log.e(TAG, "Database queue is full, dropping task");
+            result.postValue(fallback);
+        }
+        return result;
+    }
+
+    // Names the worker threads so they are easy to spot in traces
+    private static class DatabaseThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "cafe-db-" + threadNumber.getAndIncrement());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.example.cafeeight;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One open cart (a tab at the register). Items are indexed by line key
+ * (product id and modifiers) in the order they were added, and the totals are kept up to date on every
+ * change. Each change re-evaluates only the pricing rules that read the
+ * changed product. Not thread-safe on its own; Class_CartManager guards
+ * every cart with its lock.
+ */
+public class Class_Cart {
+
+    private final int number;
+    // Keyed by line key; insertion order keeps items in the order they were added
+    private final Map<Long, Class_CartItem> items = new LinkedHashMap<>();
+    // The lines of each product, for pricing rules that read a product across its modifiers
+    private final Map<Integer, List<Class_CartItem>> linesByProduct = new HashMap<>();
+    // Running totals, adjusted by each mutation instead of recomputed from the items
+    private long totalCentavos;
+    private int totalQuantity;
+    private final Class_PricingEngine pricingEngine;
+    // Current adjustment of each rule, by rule position, and their sum
+    private final long[] adjustmentCentavos;
+    private long totalAdjustmentCentavos;
+    // Scratch arrays for rules that sort lines while evaluating; rules are shared, so the cart owns them
+    private long[] unitPriceScratch = new long[0];
+    private int[] quantityScratch = new int[0];
+
+    /**
+     * Creates an empty cart.
+     *
+     * @param number        The tab number shown to the cashier.
+     * @param pricingEngine The rules that price the cart's lines.
+     */
+    public Class_Cart(int number, Class_PricingEngine pricingEngine) {
+        this.number = number;
+        this.pricingEngine = pricingEngine;
+        this.adjustmentCentavos = new long[pricingEngine.getRuleCount()];
+    }
+
+    /**
+     * Gets the tab number of this cart.
+     *
+     * @return The cart number.
+     */
+    public int getNumber() {
+        return number;
+    }
+
+    /**
+     * Adds an item, merging it with an existing line for the same product and modifiers.
+     *
+     * @param item The item to add.
+     * @return True if the cart changed.
+     */
+    boolean add(Class_CartItem item) {
+        if (item == null || item.getQuantity() <= 0) {
+            return false;
+        }
+        Class_CartItem existingItem = items.get(item.getLineKey());
+        if (existingItem != null) {
+            replace(existingItem, existingItem.withQuantity(existingItem.getQuantity() + item.getQuantity()));
+        } else {
+            items.put(item.getLineKey(), item);
+            List<Class_CartItem> productLines = linesByProduct.get(item.getProductId());
+            if (productLines == null) {
+                productLines = new ArrayList<>(2);
+                linesByProduct.put(item.getProductId(), productLines);
+            }
+            productLines.add(item);
+            totalCentavos += item.getTotalPrice().getCentavos();
+            totalQuantity += item.getQuantity();
+            repriceProduct(item.getProductId(), null, item);
+        }
+        return true;
+    }
+
+    /**
+     * Changes the quantity of a line; a quantity of 0 removes it.
+     *
+     * @return True if the cart changed.
+     */
+    boolean setQuantity(long lineKey, int quantity) {
+        Class_CartItem existingItem = items.get(lineKey);
+        if (existingItem == null || quantity < 0 || quantity == existingItem.getQuantity()) {
+            return false;
+        }
+        if (quantity == 0) {
+            return remove(lineKey);
+        }
+        replace(existingItem, existingItem.withQuantity(quantity));
+        return true;
+    }
+
+    /**
+     * Removes a line from the cart.
+     *
+     * @return True if the line was in the cart.
+     */
+    boolean remove(long lineKey) {
+        Class_CartItem removedItem = items.remove(lineKey);
+        if (removedItem == null) {
+            return false;
+        }
+        int productId = removedItem.getProductId();
+        List<Class_CartItem> productLines = linesByProduct.get(productId);
+        productLines.remove(removedItem);
+        if (productLines.isEmpty()) {
+            linesByProduct.remove(productId);
+        }
+        totalCentavos -= removedItem.getTotalPrice().getCentavos();
+        totalQuantity -= removedItem.getQuantity();
+        repriceProduct(productId, removedItem, null);
+        return true;
+    }
+
+    /**
+     * Removes every item.
+     *
+     * @return True if the cart was not already empty.
+     */
+    boolean clear() {
+        if (items.isEmpty()) {
+            return false;
+        }
+        items.clear();
+        linesByProduct.clear();
+        totalCentavos = 0;
+        totalQuantity = 0;
+        Arrays.fill(adjustmentCentavos, 0);
+        totalAdjustmentCentavos = 0;
+        return true;
+    }
+
+    /**
+     * Puts a line back to a recorded state, for undo and redo.
+     *
+     * @param lineKey The line to change.
+     * @param item    The line as recorded, or null if it should not exist.
+     * @return True if the cart changed.
+     */
+    boolean restoreLine(long lineKey, Class_CartItem item) {
+        if (item == null) {
+            return remove(lineKey);
+        }
+        Class_CartItem existingItem = items.get(lineKey);
+        if (existingItem == null) {
+            return add(item);
+        }
+        return setQuantity(lineKey, item.getQuantity());
+    }
+
+    private void replace(Class_CartItem existingItem, Class_CartItem updatedItem) {
+        items.put(updatedItem.getLineKey(), updatedItem);
+        List<Class_CartItem> productLines = linesByProduct.get(updatedItem.getProductId());
+        productLines.set(productLines.indexOf(existingItem), updatedItem);
+        totalCentavos += updatedItem.getTotalPrice().getCentavos() - existingItem.getTotalPrice().getCentavos();
+        totalQuantity += updatedItem.getQuantity() - existingItem.getQuantity();
+        repriceProduct(updatedItem.getProductId(), existingItem, updatedItem);
+    }
+
+    // Evaluate only the rules that read this product's line, passing them the line before and after the change
+    private void repriceProduct(int productId, Class_CartItem lineBefore, Class_CartItem lineAfter) {
+        int[] ruleIndexes = pricingEngine.getRulesForProduct(productId);
+        if (ruleIndexes.length == 0) {
+            return;
+        }
+        long now = pricingEngine.now();
+        for (int ruleIndex : ruleIndexes) {
+            long adjustment = pricingEngine.getRule(ruleIndex)
+                    .evaluateChange(this, now, adjustmentCentavos[ruleIndex], lineBefore, lineAfter);
+            applyAdjustment(ruleIndex, adjustment);
+        }
+    }
+
+    /**
+     * Evaluates the rules that depend on the time of day, e.g. when a happy
+     * hour starts or ends while the cart is open.
+     *
+     * @return True if an adjustment changed.
+     */
+    boolean repriceTimeDependentRules() {
+        boolean changed = false;
+        long now = pricingEngine.now();
+        for (int ruleIndex : pricingEngine.getTimeDependentRules()) {
+            changed |= evaluateRule(ruleIndex, now);
+        }
+        return changed;
+    }
+
+    private boolean evaluateRule(int ruleIndex, long now) {
+        return applyAdjustment(ruleIndex, pricingEngine.getRule(ruleIndex).evaluate(this, now));
+    }
+
+    private boolean applyAdjustment(int ruleIndex, long adjustment) {
+        long delta = adjustment - adjustmentCentavos[ruleIndex];
+        if (delta == 0) {
+            return false;
+        }
+        adjustmentCentavos[ruleIndex] = adjustment;
+        totalAdjustmentCentavos += delta;
+        return true;
+    }
+
+    Class_CartItem get(long lineKey) {
+        return items.get(lineKey);
+    }
+
+    boolean contains(long lineKey) {
+        return items.containsKey(lineKey);
+    }
+
+    // The lines of a product across all its modifiers; empty if the product is not in the cart
+    List<Class_CartItem> getLines(int productId) {
+        List<Class_CartItem> productLines = linesByProduct.get(productId);
+        return productLines != null ? productLines : Collections.<Class_CartItem>emptyList();
+    }
+
+    // Every line in the order they were added, for rules that read the whole cart; must not be modified
+    Collection<Class_CartItem> getAllLines() {
+        return items.values();
+    }
+
+    // A scratch array of at least the given size, reused by every evaluation on this cart; contents are undefined
+    long[] unitPriceScratch(int size) {
+        if (unitPriceScratch.length < size) {
+            unitPriceScratch = new long[Math.max(size, unitPriceScratch.length * 2)];
+        }
+        return unitPriceScratch;
+    }
+
+    int[] quantityScratch(int size) {
+        if (quantityScratch.length < size) {
+            quantityScratch = new int[Math.max(size, quantityScratch.length * 2)];
+        }
+        return quantityScratch;
+    }
+
+    /**
+     * Copies the items in the order they were added.
+     *
+     * @return A new list of the cart's items.
+     */
+    List<Class_CartItem> copyItems() {
+        return new ArrayList<>(items.values());
+    }
+
+    /**
+     * Lists the adjustments currently applied, in rule order.
+     *
+     * @return A new list with one line per rule that applies.
+     */
+    List<Class_PriceAdjustment> copyAdjustments() {
+        List<Class_PriceAdjustment> adjustments = new ArrayList<>();
+        for (int ruleIndex = 0; ruleIndex < adjustmentCentavos.length; ruleIndex++) {
+            if (adjustmentCentavos[ruleIndex] != 0) {
+                Class_PricingRule rule = pricingEngine.getRule(ruleIndex);
+                adjustments.add(new Class_PriceAdjustment(rule.getRuleId(), rule.getDescription(),
+                        Class_Money.ofCentavos(adjustmentCentavos[ruleIndex])));
+            }
+        }
+        return adjustments;
+    }
+
+    /**
+     * Gets the sum of the line totals before adjustments.
+     *
+     * @return The subtotal.
+     */
+    public Class_Money getSubtotal() {
+        return Class_Money.ofCentavos(totalCentavos);
+    }
+
+    /**
+     * Gets the amount to pay: the subtotal plus every adjustment.
+     *
+     * @return The total amount.
+     */
+    public Class_Money getTotalAmount() {
+        return Class_Money.ofCentavos(totalCentavos + totalAdjustmentCentavos);
+    }
+
+    public int getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+}
@@ -1,27 +1,47 @@
 package com.example.cafeeight;
 
-import java.util.Objects;
-
 /**
- * Represents an item in the shopping cart.
+ * Represents an item in the shopping cart. A line is identified by its
+ * product and its modifiers, so the same drink with different modifiers is a
+ * separate line. Instances are immutable, so cart snapshots can be shared
+ * with other threads; quantity changes create a copy.
  */
 public class Class_CartItem {
 
-    private String itemName;
-    private int quantity;
-    private final double originalPrice; // Store the original price
-    private double totalPrice; // Calculate total price based on quantity and original price
-    private int imageResourceId; // Add this field for the image resource ID
+    private final int productId; // Menu product id, used as the cart key
+    private final int modifiers; // Class_Modifiers bits
+    private final String itemName;
+    private final int quantity;
+    private final Class_Money originalPrice; // Unit price of one item, add-ons included
+    private final Class_Money totalPrice; // Calculate total price based on quantity and original price
+    private final int imageResourceId; // Add this field for the image resource ID
 
     /**
      * Constructor for Class_CartItem.
      *
+     * @param productId       The menu product id of the item.
      * @param itemName        The name of the item.
      * @param quantity        The quantity of the item.
-     * @param originalPrice   The original price of the item.
+     * @param originalPrice   The unit price of the item.
      * @param imageResourceId The resource ID of the item image.
      */
-    public Class_CartItem(String itemName, int quantity, double originalPrice, int imageResourceId) {
+    public Class_CartItem(int productId, String itemName, int quantity, Class_Money originalPrice, int imageResourceId) {
+        this(productId, Class_Modifiers.NONE, itemName, quantity, originalPrice, imageResourceId);
+    }
+
+    /**
+     * Constructor for a drink with modifiers.
+     *
+     * @param productId       The menu product id of the item.
+     * @param modifiers       The Class_Modifiers bits of the line.
+     * @param itemName        The name of the item.
+     * @param quantity        The quantity of the item.
+     * @param originalPrice   The unit price of the item, add-ons included.
+     * @param imageResourceId The resource ID of the item image.
+     */
+    public Class_CartItem(int productId, int modifiers, String itemName, int quantity, Class_Money originalPrice, int imageResourceId) {
+        this.productId = productId;
+        this.modifiers = modifiers;
         this.itemName = itemName;
         this.quantity = quantity;
         this.originalPrice = originalPrice;
@@ -30,7 +50,7 @@ public class Class_CartItem {
     }
 
     /**
-     * Checks if two Class_CartItem objects are equal based on the item name.
+     * Checks if two Class_CartItem objects are the same line: same product and modifiers.
      *
      * @param obj The object to compare.
      * @return True if equal, false otherwise.
@@ -40,17 +60,44 @@ public class Class_CartItem {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Class_CartItem cartItem = (Class_CartItem) obj;
-        return itemName.equals(cartItem.itemName);
+        return productId == cartItem.productId && modifiers == cartItem.modifiers;
     }
 
     /**
-     * Generates a hash code based on the item name.
+     * Generates a hash code based on the line key.
      *
      * @return The hash code.
      */
     @Override
     public int hashCode() {
-        return Objects.hash(itemName);
+        return Long.hashCode(getLineKey());
+    }
+
+    /**
+     * Gets the key of this line in the cart: the product id and the modifiers.
+     *
+     * @return The line key.
+     */
+    public long getLineKey() {
+        return Class_Modifiers.lineKey(productId, modifiers);
+    }
+
+    /**
+     * Gets the modifiers of the line.
+     *
+     * @return The Class_Modifiers bits.
+     */
+    public int getModifiers() {
+        return modifiers;
+    }
+
+    /**
+     * Gets the menu product id of the item.
+     *
+     * @return The product id.
+     */
+    public int getProductId() {
+        return productId;
     }
 
     /**
@@ -72,22 +119,21 @@ public class Class_CartItem {
     }
 
     /**
-     * Sets the quantity of the item and recalculates the total price.
+     * Creates a copy of this item with a different quantity and a recalculated total price.
      *
      * @param quantity The new quantity.
+     * @return The updated item.
      */
-    public void setQuantity(int quantity) {
-        this.quantity = quantity;
-        // Recalculate total price when quantity changes
-        this.totalPrice = calculateTotalPrice();
+    public Class_CartItem withQuantity(int quantity) {
+        return new Class_CartItem(productId, modifiers, itemName, quantity, originalPrice, imageResourceId);
     }
 
     /**
-     * Gets the original price of the item.
+     * Gets the unit price of the item.
      *
-     * @return The original price.
+     * @return The unit price.
      */
-    public double getOriginalPrice() {
+    public Class_Money getOriginalPrice() {
         return originalPrice;
     }
 
@@ -96,33 +142,17 @@ public class Class_CartItem {
      *
      * @return The total price.
      */
-    public double getTotalPrice() {
+    public Class_Money getTotalPrice() {
         return totalPrice;
     }
 
-    /**
-     * Sets the total price of the item.
-     *
-     * @param totalPrice The new total price.
-     */
-    public void setTotalPrice(double totalPrice) {
-        this.totalPrice = totalPrice;
-    }
-
-    /**
-     * Resets the total price to the original calculated value.
-     */
-    public void resetPriceToOriginal() {
-        this.totalPrice = calculateTotalPrice();
-    }
-
     /**
      * Calculates the total price based on quantity and original price.
      *
      * @return The calculated total price.
      */
-    private double calculateTotalPrice() {
-        return quantity * originalPrice;
+    private Class_Money calculateTotalPrice() {
+        return originalPrice.times(quantity);
     }
 
     /**
@@ -133,13 +163,4 @@ public class Class_CartItem {
     public int getImageResourceId() {
         return imageResourceId;
     }
-
-    /**
-     * Sets the resource ID of the item image.
-     *
-     * @param imageResourceId The new resource ID.
-     */
-    public void setImageResourceId(int imageResourceId) {
-        this.imageResourceId = imageResourceId;
-    }
 }
@@ -0,0 +1,153 @@
+package com.example.cafeeight;
+
+/**
+ * A bounded undo/redo history of cart operations. Each entry records the
+ * line before and after the change; cart items are immutable, so an entry is
+ * just references and no copies are made. Entries live in a fixed ring, so
+ * recording, undoing and redoing are O(1) per step and the oldest entries
+ * are dropped once the ring is full. Not thread-safe; Class_CartManager
+ * calls it under its lock.
+ */
+public class Class_CartJournal {
+
+    static final byte OP_ADD = 1;
+    static final byte OP_SET_QUANTITY = 2;
+    static final byte OP_REMOVE = 3;
+    static final byte OP_CLEAR = 4;
+
+    // Parallel arrays indexed by ring slot
+    private final byte[] operations;
+    private final long[] lineKeys;
+    private final Class_CartItem[] linesBefore; // null when the line did not exist
+    private final Class_CartItem[] linesAfter; // null when the line was removed
+    private final Class_CartItem[][] clearedItems; // Only for OP_CLEAR
+
+    private int start; // Slot of the oldest entry
+    private int size; // Entries recorded, including ones that can be redone
+    private int position; // Entries before this one can be undone; the rest can be redone
+
+    /**
+     * Constructor for Class_CartJournal.
+     *
+     * @param capacity The number of operations kept.
+     */
+    public Class_CartJournal(int capacity) {
+        operations = new byte[capacity];
+        lineKeys = new long[capacity];
+        linesBefore = new Class_CartItem[capacity];
+        linesAfter = new Class_CartItem[capacity];
+        clearedItems = new Class_CartItem[capacity][];
+    }
+
+    /**
+     * Records a change to one line. Anything that could be redone is discarded.
+     */
+    void recordLine(byte operation, long lineKey, Class_CartItem lineBefore, Class_CartItem lineAfter) {
+        int slot = nextSlot();
+        operations[slot] = operation;
+        lineKeys[slot] = lineKey;
+        linesBefore[slot] = lineBefore;
+        linesAfter[slot] = lineAfter;
+    }
+
+    /**
+     * Records that the cart was cleared, with the items it held.
+     */
+    void recordClear(Class_CartItem[] items) {
+        int slot = nextSlot();
+        operations[slot] = OP_CLEAR;
+        clearedItems[slot] = items;
+    }
+
+    private int nextSlot() {
+        // A new operation ends the redo history
+        for (int i = position; i < size; i++) {
+            releaseSlot(slotAt(i));
+        }
+        size = position;
+        if (size == operations.length) {
+            // Full: drop the oldest entry
+            releaseSlot(start);
+            start = (start + 1) % operations.length;
+            size--;
+        }
+        int slot = slotAt(size);
+        size++;
+        position = size;
+        return slot;
+    }
+
+    /**
+     * Reverts the most recent operation that has not been undone.
+     *
+     * @param cart The cart the operations were applied to.
+     * @return The operation undone, or 0 if there was nothing to undo.
+     */
+    byte undo(Class_Cart cart) {
+        if (position == 0) {
+            return 0;
+        }
+        position--;
+        int slot = slotAt(position);
+        if (operations[slot] == OP_CLEAR) {
+            // Undoing every later entry first means the cart is empty again here
+            for (Class_CartItem item : clearedItems[slot]) {
+                cart.add(item);
+            }
+        } else {
+            cart.restoreLine(lineKeys[slot], linesBefore[slot]);
+        }
+        return operations[slot];
+    }
+
+    /**
+     * Applies the most recently undone operation again.
+     *
+     * @param cart The cart the operations were applied to.
+     * @return The operation redone, or 0 if there was nothing to redo.
+     */
+    byte redo(Class_Cart cart) {
+        if (position == size) {
+            return 0;
+        }
+        int slot = slotAt(position);
+        position++;
+        if (operations[slot] == OP_CLEAR) {
+            cart.clear();
+        } else {
+            cart.restoreLine(lineKeys[slot], linesAfter[slot]);
+        }
+        return operations[slot];
+    }
+
+    boolean canUndo() {
+        return position > 0;
+    }
+
+    boolean canRedo() {
+        return position < size;
+    }
+
+    /**
+     * Forgets every entry, e.g. when a different cart becomes active.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            releaseSlot(slotAt(i));
+        }
+        start = 0;
+        size = 0;
+        position = 0;
+    }
+
+    private int slotAt(int index) {
+        return (start + index) % operations.length;
+    }
+
+    // Drop item references so removed lines can be collected
+    private void releaseSlot(int slot) {
+        linesBefore[slot] = null;
+        linesAfter[slot] = null;
+        clearedItems[slot] = null;
+    }
+}
@@ -0,0 +1,382 @@
+package com.example.cafeeight;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Holds the open carts (tabs) at the register; cart actions apply to the
+ * active one. Mutations are serialized on the manager's lock; readers get
+ * immutable snapshots that are safe to share across threads.
+ */
+public class Class_CartManager {
+
+    private static Class_CartManager instance;
+    // Cart operations that can be undone
+    private static final int JOURNAL_CAPACITY = 50;
+    // Promotions applied to every cart
+    private final Class_PricingEngine pricingEngine;
+    // Open carts by number, in the order they were opened
+    private final Map<Integer, Class_Cart> carts;
+    private Class_Cart activeCart;
+    // Carts whose order is being written; a cart cannot be checked out twice
+    private final Set<Integer> checkoutsInFlight = new HashSet<>();
+    // Bumped under the lock on every mutation; the cached snapshot is rebuilt only when it is stale
+    private volatile long version;
+    private volatile Snapshot snapshot;
+    // Told about every change, e.g. to save the carts
+    private volatile Runnable onCartChangedListener;
+    // Undo history of the active cart; cleared whenever another cart becomes active
+    private final Class_CartJournal journal = new Class_CartJournal(JOURNAL_CAPACITY);
+
+    private Class_CartManager() {
+        this.pricingEngine = Class_PricingEngine.createDefault();
+        this.carts = new LinkedHashMap<>();
+        this.activeCart = openCart(1);
+        this.snapshot = new Snapshot(1, true, Collections.<Class_CartItem>emptyList(),
+                Collections.<Class_PriceAdjustment>emptyList(), Class_Money.ZERO, Class_Money.ZERO, 0, 0);
+    }
+
+    // Singleton pattern to get a single instance of the cart manager
+    public static synchronized Class_CartManager getInstance() {
+        if (instance == null) {
+            instance = new Class_CartManager();
+        }
+        return instance;
+    }
+
+    // Add an item to the active cart, merging it with an existing line for the same product and modifiers.
+    // Every mutator of the active cart returns false, changing nothing, while that cart is being checked out.
+    public synchronized boolean addToCart(Class_CartItem fragmentCartItem) {
+        if (isActiveCartCheckingOut()) {
+            return false;
+        }
+        long lineKey = fragmentCartItem.getLineKey();
+        Class_CartItem lineBefore = activeCart.get(lineKey);
+        if (!activeCart.add(fragmentCartItem)) {
+            return false;
+        }
+        journal.recordLine(Class_CartJournal.OP_ADD, lineKey, lineBefore, activeCart.get(lineKey));
+        onChanged();
+        return true;
+    }
+
+    // Change the quantity of a line in the active cart; a quantity of 0 removes it
+    public synchronized boolean setQuantity(long lineKey, int quantity) {
+        if (isActiveCartCheckingOut()) {
+            return false;
+        }
+        Class_CartItem lineBefore = activeCart.get(lineKey);
+        if (!activeCart.setQuantity(lineKey, quantity)) {
+            return false;
+        }
+        journal.recordLine(Class_CartJournal.OP_SET_QUANTITY, lineKey, lineBefore, activeCart.get(lineKey));
+        onChanged();
+        return true;
+    }
+
+    // Remove a line from the active cart
+    public synchronized boolean removeFromCart(long lineKey) {
+        if (isActiveCartCheckingOut()) {
+            return false;
+        }
+        Class_CartItem lineBefore = activeCart.get(lineKey);
+        if (!activeCart.remove(lineKey)) {
+            return false;
+        }
+        journal.recordLine(Class_CartJournal.OP_REMOVE, lineKey, lineBefore, null);
+        onChanged();
+        return true;
+    }
+
+    // Clear the active cart
+    public synchronized boolean clearCart() {
+        if (isActiveCartCheckingOut()) {
+            return false;
+        }
+        List<Class_CartItem> clearedItems = activeCart.copyItems();
+        if (!activeCart.clear()) {
+            return false;
+        }
+        journal.recordClear(clearedItems.toArray(new Class_CartItem[0]));
+        onChanged();
+        return true;
+    }
+
+    // Revert the last add, quantity change, removal or clear in the active cart.
+    // A line that comes back after a removal is listed last.
+    public synchronized boolean undo() {
+        if (isActiveCartCheckingOut() || journal.undo(activeCart) == 0) {
+            return false;
+        }
+        onChanged();
+        return true;
+    }
+
+    // Apply the last undone operation again
+    public synchronized boolean redo() {
+        if (isActiveCartCheckingOut() || journal.redo(activeCart) == 0) {
+            return false;
+        }
+        onChanged();
+        return true;
+    }
+
+    public synchronized boolean canUndo() {
+        return journal.canUndo();
+    }
+
+    public synchronized boolean canRedo() {
+        return journal.canRedo();
+    }
+
+    // Park the active cart and start a new, empty one; an empty active cart is simply kept
+    public synchronized int newCart() {
+        if (!activeCart.isEmpty()) {
+            activeCart = openCart(nextCartNumber());
+            journal.clear();
+            onChanged();
+        }
+        return activeCart.getNumber();
+    }
+
+    // Make a parked cart the active one; an empty cart being left is closed so abandoned tabs do not pile up
+    public synchronized boolean switchToCart(int cartNumber) {
+        Class_Cart cart = carts.get(cartNumber);
+        if (cart == null || cart == activeCart) {
+            return false;
+        }
+        if (activeCart.isEmpty()) {
+            carts.remove(activeCart.getNumber());
+        }
+        activeCart = cart;
+        journal.clear();
+        onChanged();
+        return true;
+    }
+
+    // Close a cart, e.g. once it is checked out; closing the active cart starts an empty one
+    public synchronized void closeCart(int cartNumber) {
+        if (carts.remove(cartNumber) == null) {
+            return;
+        }
+        if (activeCart.getNumber() == cartNumber) {
+            activeCart = openCart(nextCartNumber());
+            journal.clear();
+        }
+        onChanged();
+    }
+
+    // Mark a cart as being checked out; false if it is not open or its order is already being written
+    public synchronized boolean beginCheckout(int cartNumber) {
+        return carts.containsKey(cartNumber) && checkoutsInFlight.add(cartNumber);
+    }
+
+    // Finish a checkout started with beginCheckout; the cart is closed only if its order was written
+    public synchronized void endCheckout(int cartNumber, boolean orderPlaced) {
+        if (!checkoutsInFlight.remove(cartNumber)) {
+            return;
+        }
+        if (orderPlaced) {
+            closeCart(cartNumber);
+        } else {
+            onChanged();
+        }
+    }
+
+    public synchronized boolean isCheckingOut(int cartNumber) {
+        return checkoutsInFlight.contains(cartNumber);
+    }
+
+    // The order being written holds the cart as it was, so a change now would be lost when the cart closes
+    public synchronized boolean isActiveCartCheckingOut() {
+        return checkoutsInFlight.contains(activeCart.getNumber());
+    }
+
+    private Class_Cart openCart(int cartNumber) {
+        Class_Cart cart = new Class_Cart(cartNumber, pricingEngine);
+        carts.put(cartNumber, cart);
+        return cart;
+    }
+
+    private int nextCartNumber() {
+        int highestNumber = 0;
+        for (int cartNumber : carts.keySet()) {
+            highestNumber = Math.max(highestNumber, cartNumber);
+        }
+        return highestNumber + 1;
+    }
+
+    // Put back carts saved before the process died. If the cashier has already started a cart,
+    // the saved carts come back as parked tabs instead of replacing it.
+    public synchronized void restore(List<Class_Cart> savedCarts, int savedActiveNumber) {
+        boolean isUntouched = carts.size() == 1 && activeCart.isEmpty();
+        if (isUntouched) {
+            carts.clear();
+            for (Class_Cart savedCart : savedCarts) {
+                carts.put(savedCart.getNumber(), savedCart);
+            }
+            activeCart = carts.get(savedActiveNumber);
+            if (activeCart == null) {
+                activeCart = openCart(nextCartNumber());
+            }
+            journal.clear();
+        } else {
+            for (Class_Cart savedCart : savedCarts) {
+                if (savedCart.isEmpty()) {
+                    continue;
+                }
+                Class_Cart parkedCart = openCart(nextCartNumber());
+                for (Class_CartItem savedItem : savedCart.copyItems()) {
+                    parkedCart.add(savedItem);
+                }
+            }
+        }
+        onChanged();
+    }
+
+    // Apply or lift time-of-day promotions on every open cart, e.g. before showing or checking out a cart
+    public synchronized void repriceTimeDependentRules() {
+        boolean changed = false;
+        for (Class_Cart cart : carts.values()) {
+            changed |= cart.repriceTimeDependentRules();
+        }
+        if (changed) {
+            onChanged();
+        }
+    }
+
+    public Class_PricingEngine getPricingEngine() {
+        return pricingEngine;
+    }
+
+    public void setOnCartChangedListener(Runnable listener) {
+        this.onCartChangedListener = listener;
+    }
+
+    // Called with the lock held after every mutation
+    private void onChanged() {
+        version++;
+        Runnable listener = onCartChangedListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    // Get a consistent, immutable view of the active cart; an unchanged cart returns the same snapshot without copying
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current.getVersion() == version) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot.getVersion() != version) {
+                snapshot = snapshotOf(activeCart);
+            }
+            return snapshot;
+        }
+    }
+
+    // Get snapshots of every open cart, in the order they were opened, all taken at the same version
+    public synchronized List<Snapshot> getOpenCarts() {
+        List<Snapshot> openCarts = new ArrayList<>(carts.size());
+        for (Class_Cart cart : carts.values()) {
+            openCarts.add(cart == activeCart ? getSnapshot() : snapshotOf(cart));
+        }
+        return openCarts;
+    }
+
+    private Snapshot snapshotOf(Class_Cart cart) {
+        return new Snapshot(cart.getNumber(), cart == activeCart, cart.copyItems(), cart.copyAdjustments(),
+                cart.getSubtotal(), cart.getTotalAmount(), cart.getTotalQuantity(), version);
+    }
+
+    // Get the active cart's line for a line key, or null if it is not in the cart
+    public synchronized Class_CartItem getCartItem(long lineKey) {
+        return activeCart.get(lineKey);
+    }
+
+    // Get the items in the active cart, in the order they were added; the list cannot be modified
+    public List<Class_CartItem> getCartItems() {
+        return getSnapshot().getItems();
+    }
+
+    public synchronized Class_Money getTotalAmount() {
+        return activeCart.getTotalAmount();
+    }
+
+    public synchronized int getTotalQuantity() {
+        return activeCart.getTotalQuantity();
+    }
+
+    public synchronized boolean isEmpty() {
+        return activeCart.isEmpty();
+    }
+
+    // Immutable state of one cart at one version; items and totals always agree
+    public static final class Snapshot {
+        private final int cartNumber;
+        private final boolean isActive;
+        private final List<Class_CartItem> items;
+        private final List<Class_PriceAdjustment> adjustments;
+        private final Class_Money subtotal;
+        private final Class_Money totalAmount;
+        private final int totalQuantity;
+        private final long version;
+
+        Snapshot(int cartNumber, boolean isActive, List<Class_CartItem> items, List<Class_PriceAdjustment> adjustments,
+                 Class_Money subtotal, Class_Money totalAmount, int totalQuantity, long version) {
+            this.cartNumber = cartNumber;
+            this.isActive = isActive;
+            this.items = Collections.unmodifiableList(items);
+            this.adjustments = Collections.unmodifiableList(adjustments);
+            this.subtotal = subtotal;
+            this.totalAmount = totalAmount;
+            this.totalQuantity = totalQuantity;
+            this.version = version;
+        }
+
+        public int getCartNumber() {
+            return cartNumber;
+        }
+
+        public boolean isActive() {
+            return isActive;
+        }
+
+        public List<Class_CartItem> getItems() {
+            return items;
+        }
+
+        // Adjustments from the pricing rules, in rule order
+        public List<Class_PriceAdjustment> getAdjustments() {
+            return adjustments;
+        }
+
+        // Sum of the line totals before adjustments
+        public Class_Money getSubtotal() {
+            return subtotal;
+        }
+
+        // Amount to pay, adjustments included
+        public Class_Money getTotalAmount() {
+            return totalAmount;
+        }
+
+        public int getTotalQuantity() {
+            return totalQuantity;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public boolean isEmpty() {
+            return items.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.cafeeight;
+
+import android.content.Context;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the open carts on disk so half-built orders survive process death or
+ * a crash. After each cart change a compact binary snapshot is written on a
+ * background thread; bursts of changes are coalesced into one write. The
+ * file is replaced atomically, so a crash mid-write leaves the previous
+ * snapshot intact. On cold start the snapshot is read back in the background.
+ */
+public class Class_CartStore {
+
+    private static final String TAG = "Class_CartStore";
+    private static final String FILE_NAME = "cart.bin";
+
+    // "CAF8" followed by the format version
+    static final int MAGIC = 0x43414638;
+    // Version 1 held a single cart; version 2 added every open cart and which one is active;
+    // version 3 stores prices in centavos instead of floating-point pesos; version 4 adds each line's modifiers
+    private static final int FORMAT_VERSION = 4;
+
+    // Changes arriving within this window are written together
+    private static final long WRITE_DELAY_MILLIS = 100;
+
+    private static Class_CartStore instance;
+
+    private final Context appContext;
+    private final Class_CartManager cartManager;
+    private final ScheduledThreadPoolExecutor executor;
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
+    // Only touched on the store thread
+    private AtomicFile file;
+    private long writtenVersion = -1;
+
+    private Class_CartStore(Context context) {
+        this.appContext = context;
+        this.cartManager = Class_CartManager.getInstance();
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "cafe-cart-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the process-wide cart store.
+     *
+     * @param context Any context; only the application context is used.
+     * @return The shared store.
+     */
+    public static synchronized Class_CartStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new Class_CartStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Restores the saved cart in the background, then starts saving every
+     * change. Call once from Application.onCreate.
+     */
+    public void start() {
+        executor.execute(() -> {
+            // getFilesDir may create the directory, so it is resolved here rather than on the main thread
+            file = new AtomicFile(new File(appContext.getFilesDir(), FILE_NAME));
+            SavedCarts saved = read();
+            if (!saved.carts.isEmpty()) {
+                cartManager.restore(saved.carts, saved.activeNumber);
+            }
+
+            writtenVersion = cartManager.getSnapshot().getVersion();
+            cartManager.setOnCartChangedListener(this::scheduleWrite);
+            // Catch changes made before the listener was attached
+            scheduleWrite();
+        });
+    }
+
+    // Called after every cart mutation, possibly on the UI thread; only the first call in a burst schedules a write
+    private void scheduleWrite() {
+        if (writeScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::writeLatest, WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void writeLatest() {
+        writeScheduled.set(false);
+        List<Class_CartManager.Snapshot> openCarts = cartManager.getOpenCarts();
+        long version = openCarts.get(0).getVersion();
+        if (version == writtenVersion) {
+            return;
+        }
+        try {
+            write(file, openCarts);
+            writtenVersion = version;
+        } catch (IOException e) {
+            Log.e(TAG, "Could not save cart: " + e.getMessage());
+        }
+    }
+
+    // Package-private, like read, so tests can round-trip files without the store thread
+    static void write(AtomicFile file, List<Class_CartManager.Snapshot> openCarts) throws IOException {
+        FileOutputStream stream = file.startWrite();
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            int activeNumber = openCarts.get(0).getCartNumber();
+            for (Class_CartManager.Snapshot cart : openCarts) {
+                if (cart.isActive()) {
+                    activeNumber = cart.getCartNumber();
+                }
+            }
+            out.writeInt(activeNumber);
+            out.writeInt(openCarts.size());
+            for (Class_CartManager.Snapshot cart : openCarts) {
+                out.writeInt(cart.getCartNumber());
+                writeItems(out, cart.getItems());
+            }
+            out.flush();
+            file.finishWrite(stream);
+        } catch (IOException e) {
+            file.failWrite(stream);
+            throw e;
+        }
+    }
+
+    private static void writeItems(DataOutputStream out, List<Class_CartItem> items) throws IOException {
+        out.writeInt(items.size());
+        for (Class_CartItem item : items) {
+            out.writeInt(item.getProductId());
+            out.writeInt(item.getModifiers());
+            out.writeUTF(item.getItemName());
+            out.writeInt(item.getQuantity());
+            out.writeLong(item.getOriginalPrice().getCentavos());
+        }
+    }
+
+    private SavedCarts read() {
+        // The catalog loads on its own thread; saved lines need its images
+        return read(file, cartManager.getPricingEngine(), Class_ProductCatalog.getInstance(appContext).awaitMenu());
+    }
+
+    // Any format from 1 up; a missing, unknown or damaged file gives no carts
+    static SavedCarts read(AtomicFile file, Class_PricingEngine pricingEngine, Class_ProductCatalog.Menu menu) {
+        SavedCarts saved = new SavedCarts();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(file.openRead()))) {
+            int formatVersion = in.readInt() == MAGIC ? in.readInt() : -1;
+            if (formatVersion == 1) {
+                saved.activeNumber = 1;
+                saved.carts.add(readCart(in, 1, formatVersion, pricingEngine, menu));
+            } else if (formatVersion >= 2 && formatVersion <= FORMAT_VERSION) {
+                saved.activeNumber = in.readInt();
+                int cartCount = in.readInt();
+                for (int i = 0; i < cartCount; i++) {
+                    saved.carts.add(readCart(in, in.readInt(), formatVersion, pricingEngine, menu));
+                }
+            } else {
+                Log.w(TAG, "Ignoring cart file in an unknown format");
+            }
+        } catch (FileNotFoundException e) {
+            // Nothing saved yet
+        } catch (IOException e) {
+            Log.e(TAG, "Could not restore carts: " + e.getMessage());
+            saved.carts.clear();
+        }
+        return saved;
+    }
+
+    // Image resource ids are not stable between builds, so images are looked up again in the menu.
+    // Names and prices are kept as saved, so a menu change does not alter a cart already in progress.
+    // Adjustments are not saved; adding the items back evaluates the current rules.
+    private static Class_Cart readCart(DataInputStream in, int cartNumber, int formatVersion,
+                                       Class_PricingEngine pricingEngine, Class_ProductCatalog.Menu menu) throws IOException {
+        Class_Cart cart = new Class_Cart(cartNumber, pricingEngine);
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int productId = in.readInt();
+            int modifiers = formatVersion >= 4 ? in.readInt() : Class_Modifiers.NONE;
+            String itemName = in.readUTF();
+            int quantity = in.readInt();
+            Class_Money originalPrice = formatVersion >= 3
+                    ? Class_Money.ofCentavos(in.readLong())
+                    : Class_Money.fromDecimalPesos(in.readDouble());
+            Class_Product product = menu.getProduct(productId);
+            cart.add(new Class_CartItem(productId, modifiers, itemName, quantity, originalPrice,
+                    product != null ? product.getImageResourceId() : R.drawable.ic_launcher_foreground));
+        }
+        return cart;
+    }
+
+    static class SavedCarts {
+        final List<Class_Cart> carts = new ArrayList<>();
+        int activeNumber;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.cafeeight;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An order waiting to be written at checkout: totals, line items, the
+ * discounts and upcharges applied by the pricing rules and the time the cashier
+ * confirmed it.
+ */
+public class Class_CheckoutOrder {
+
+    private final Class_Money totalAmount;
+    private final int totalItems;
+    private final List<Class_CartItem> cartItems;
+    private final List<Class_PriceAdjustment> adjustments;
+    private final long timestamp;
+
+    /**
+     * Constructor for Class_CheckoutOrder. The cart lines are copied so later
+     * cart edits cannot change an order that is already queued.
+     *
+     * @param totalAmount The total amount of the order.
+     * @param totalItems  The total number of items in the order.
+     * @param cartItems   The cart lines, or null for an order without line items.
+     */
+    public Class_CheckoutOrder(Class_Money totalAmount, int totalItems, List<Class_CartItem> cartItems) {
+        this(totalAmount, totalItems, cartItems, null, System.currentTimeMillis());
+    }
+
+    /**
+     * Constructor for an order priced by the pricing rules.
+     *
+     * @param totalAmount   The amount paid, adjustments included.
+     * @param totalItems    The total number of items in the order.
+     * @param cartItems     The cart lines, or null for an order without line items.
+     * @param adjustments   The discounts and upcharges applied, or null for none.
+     */
+    public Class_CheckoutOrder(Class_Money totalAmount, int totalItems, List<Class_CartItem> cartItems, List<Class_PriceAdjustment> adjustments) {
+        this(totalAmount, totalItems, cartItems, adjustments, System.currentTimeMillis());
+    }
+
+    // Package-private so tests can generate order history at chosen times
+    Class_CheckoutOrder(Class_Money totalAmount, int totalItems, List<Class_CartItem> cartItems, long timestamp) {
+        this(totalAmount, totalItems, cartItems, null, timestamp);
+    }
+
+    Class_CheckoutOrder(Class_Money totalAmount, int totalItems, List<Class_CartItem> cartItems, List<Class_PriceAdjustment> adjustments, long timestamp) {
+        this.totalAmount = totalAmount;
+        this.totalItems = totalItems;
+        this.cartItems = cartItems != null
+                ? Collections.unmodifiableList(new ArrayList<>(cartItems))
+                : Collections.<Class_CartItem>emptyList();
+        this.adjustments = adjustments != null
+                ? Collections.unmodifiableList(new ArrayList<>(adjustments))
+                : Collections.<Class_PriceAdjustment>emptyList();
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Gets the total amount of the order.
+     *
+     * @return The total amount.
+     */
+    public Class_Money getTotalAmount() {
+        return totalAmount;
+    }
+
+    /**
+     * Gets the total number of items in the order.
+     *
+     * @return The total number of items.
+     */
+    public int getTotalItems() {
+        return totalItems;
+    }
+
+    /**
+     * Gets the line items of the order.
+     *
+     * @return An unmodifiable list of cart lines.
+     */
+    public List<Class_CartItem> getCartItems() {
+        return cartItems;
+    }
+
+    /**
+     * Gets the adjustments applied by the pricing rules.
+     *
+     * @return An unmodifiable list of adjustments.
+     */
+    public List<Class_PriceAdjustment> getAdjustments() {
+        return adjustments;
+    }
+
+    /**
+     * Gets the time the order was confirmed.
+     *
+     * @return Epoch milliseconds.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
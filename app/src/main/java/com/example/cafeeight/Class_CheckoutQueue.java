@@ -0,0 +1,161 @@
+package com.example.cafeeight;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-writer queue in front of DatabaseHelper that group-commits
+ * checkouts. Orders arriving within the batch window are written in one
+ * transaction, and each caller still gets its own order id back.
+ */
+public class Class_CheckoutQueue {
+
+    private static final String TAG = "Class_CheckoutQueue";
+
+    private final DatabaseHelper databaseHelper;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final LinkedBlockingQueue<PendingCheckout> pendingCheckouts = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    // Held while setting the shutdown flag and while queueing, so no order is queued after the writer's last drain
+    private final Object shutdownLock = new Object();
+    private volatile boolean isShutdown;
+
+    /**
+     * Constructor for Class_CheckoutQueue. Starts the writer thread.
+     *
+     * @param databaseHelper The database the orders are written to.
+     * @param maxBatchSize   The most orders committed in one transaction.
+     * @param maxDelayMillis How long the writer waits for more orders after the first one arrives.
+     */
+    public Class_CheckoutQueue(DatabaseHelper databaseHelper, int maxBatchSize, long maxDelayMillis) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        if (maxDelayMillis < 0) {
+            throw new IllegalArgumentException("maxDelayMillis must not be negative");
+        }
+        this.databaseHelper = databaseHelper;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.writerThread = new Thread(this::runWriter, "cafe-checkout-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues an order for the next batch.
+     *
+     * @param order The order to write.
+     * @return A future completed with the generated order id, or completed
+     *         exceptionally if the write failed or the queue is shut down.
+     */
+    public CompletableFuture<Long> submit(Class_CheckoutOrder order) {
+        PendingCheckout pendingCheckout = new PendingCheckout(order);
+        synchronized (shutdownLock) {
+            if (!isShutdown) {
+                pendingCheckouts.add(pendingCheckout);
+                return pendingCheckout.result;
+            }
+        }
+        pendingCheckout.result.completeExceptionally(new IllegalStateException("Checkout queue is shut down"));
+        return pendingCheckout.result;
+    }
+
+    /**
+     * Stops the writer thread. Orders that were not written yet complete
+     * exceptionally, and so does every later submit.
+     */
+    public void shutdown() {
+        synchronized (shutdownLock) {
+            isShutdown = true;
+        }
+        writerThread.interrupt();
+    }
+
+    private void runWriter() {
+        List<PendingCheckout> batch = new ArrayList<>(maxBatchSize);
+        List<Class_CheckoutOrder> orders = new ArrayList<>(maxBatchSize);
+
+        while (!isShutdown) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                break;
+            }
+            writeBatch(batch, orders);
+            batch.clear();
+        }
+
+        // Fail whatever is still waiting so no caller blocks forever. The flag is already set under the
+        // lock, so nothing can be queued after this drain.
+        pendingCheckouts.drainTo(batch);
+        IllegalStateException shutdownError = new IllegalStateException("Checkout queue shut down before the order was written");
+        for (PendingCheckout pendingCheckout : batch) {
+            pendingCheckout.result.completeExceptionally(shutdownError);
+        }
+    }
+
+    // Block for the first order, then keep collecting until the batch is full or the window closes
+    private void collectBatch(List<PendingCheckout> batch) throws InterruptedException {
+        batch.add(pendingCheckouts.take());
+        long deadline = System.nanoTime() + maxDelayNanos;
+
+        while (batch.size() < maxBatchSize) {
+            if (pendingCheckouts.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                break;
+            }
+            PendingCheckout next = pendingCheckouts.poll(remainingNanos, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void writeBatch(List<PendingCheckout> batch, List<Class_CheckoutOrder> orders) {
+        orders.clear();
+        for (PendingCheckout pendingCheckout : batch) {
+            orders.add(pendingCheckout.order);
+        }
+
+        long[] orderIds;
+        try {
+            orderIds = databaseHelper.insertOrders(orders);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Error writing checkout batch: " + e.getMessage());
+            for (PendingCheckout pendingCheckout : batch) {
+                pendingCheckout.result.completeExceptionally(e);
+            }
+            return;
+        }
+
+        // insertOrders reports an order it could not write as -1, e.g. after a batch retried order by order
+        for (int i = 0; i < batch.size(); i++) {
+            if (orderIds[i] != -1) {
+                batch.get(i).result.complete(orderIds[i]);
+            } else {
+                batch.get(i).result.completeExceptionally(new IllegalStateException("Order could not be written"));
+            }
+        }
+    }
+
+    // An order together with the future its caller is waiting on
+    private static class PendingCheckout {
+        private final Class_CheckoutOrder order;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        PendingCheckout(Class_CheckoutOrder order) {
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.example.cafeeight;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads product images into image views. Each image is decoded on a
+ * background thread at the size of the view it is shown in, not at its full
+ * resolution, and kept in a memory cache sized from the device's memory
+ * class, so rebinding a row is a cache hit. Bitmaps dropped from the cache
+ * that no view is showing any more are decoded into again instead of being
+ * left to the garbage collector, keeping allocation flat while the menu and
+ * the cart scroll. Views are tracked weakly, so a view that is dropped
+ * without clear() stops holding its bitmap once it is collected. Call it from
+ * the main thread only.
+ */
+public class Class_ImageLoader {
+
+    private static final String TAG = "Class_ImageLoader";
+    // Share of the app's memory class given to decoded images
+    private static final int CACHE_FRACTION = 8;
+    // Used when a view has no size yet and no fixed size in its layout
+    private static final int DEFAULT_TARGET_DP = 128;
+    private static final int REUSABLE_BITMAPS = 8;
+    private static final int DECODE_THREADS = 2;
+
+    private static Class_ImageLoader instance;
+
+    private final Resources resources;
+    private final ExecutorService executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Decoded bitmaps by resource id and target size
+    private final LruCache<Long, Bitmap> cache;
+    // The key each view is waiting for; a rebind replaces it, so a late decode never lands in the wrong row
+    private final Map<ImageView, Long> pendingKeys = new WeakHashMap<>();
+    // The bitmap each view shows; collected views drop out, so a lost view never pins its bitmap
+    private final Map<ImageView, Bitmap> shownBitmaps = new WeakHashMap<>();
+    // The bitmaps currently in the cache
+    private final Set<Bitmap> cachedBitmaps = new HashSet<>();
+    // Bitmaps out of the cache and off screen, ready to decode into; also read by the decode threads
+    private final List<Bitmap> reusableBitmaps = new ArrayList<>();
+    // Resources that are not bitmaps, e.g. vector placeholders; these are set directly
+    private final Set<Integer> nonBitmapResources = new HashSet<>();
+
+    private Class_ImageLoader(Context context) {
+        this(context, ((ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE)).getMemoryClass()
+                * 1024 * 1024 / CACHE_FRACTION);
+    }
+
+    // Package-private so tests can use a cache of a chosen size
+    Class_ImageLoader(Context context, int cacheBytes) {
+        this.resources = context.getResources();
+        this.cache = new LruCache<Long, Bitmap>(cacheBytes) {
+            @Override
+            protected int sizeOf(Long key, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Long key, Bitmap oldValue, Bitmap newValue) {
+                cachedBitmaps.remove(oldValue);
+                if (!isShown(oldValue)) {
+                    addReusable(oldValue);
+                }
+            }
+        };
+        this.executor = Executors.newFixedThreadPool(DECODE_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "cafe-image-decode");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the process-wide image loader.
+     *
+     * @param context Any context; only the application context is used.
+     * @return The shared loader.
+     */
+    public static synchronized Class_ImageLoader getInstance(Context context) {
+        if (instance == null) {
+            instance = new Class_ImageLoader(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Shows a drawable resource in a view, decoded at the view's size. A
+     * cached image is shown at once; otherwise the view is cleared until the
+     * background decode finishes.
+     *
+     * @param imageResourceId The drawable resource ID.
+     * @param imageView       The view to show it in.
+     */
+    public void load(int imageResourceId, ImageView imageView) {
+        if (nonBitmapResources.contains(imageResourceId)) {
+            pendingKeys.remove(imageView);
+            release(imageView);
+            imageView.setImageResource(imageResourceId);
+            return;
+        }
+
+        int targetWidth = targetSize(imageView.getWidth(), imageView.getLayoutParams() != null ? imageView.getLayoutParams().width : 0);
+        int targetHeight = targetSize(imageView.getHeight(), imageView.getLayoutParams() != null ? imageView.getLayoutParams().height : 0);
+        long key = cacheKey(imageResourceId, targetWidth, targetHeight);
+
+        Bitmap cached = cache.get(key);
+        if (cached != null) {
+            pendingKeys.remove(imageView);
+            show(imageView, cached);
+            return;
+        }
+
+        Long pendingKey = pendingKeys.put(imageView, key);
+        release(imageView);
+        imageView.setImageDrawable(null);
+        if (pendingKey != null && pendingKey == key) {
+            return; // Already being decoded for this view
+        }
+        executor.execute(() -> {
+            Bitmap bitmap = decode(imageResourceId, targetWidth, targetHeight);
+            mainHandler.post(() -> deliver(key, imageResourceId, bitmap));
+        });
+    }
+
+    /**
+     * Stops loading into a view and lets go of the bitmap it shows, so the
+     * bitmap can be reused once the cache drops it. Call it when a row is
+     * recycled.
+     *
+     * @param imageView The view to clear.
+     */
+    public void clear(ImageView imageView) {
+        pendingKeys.remove(imageView);
+        release(imageView);
+        imageView.setImageDrawable(null);
+    }
+
+    /**
+     * Frees memory when the system asks, e.g. once the app is in the background.
+     *
+     * @param level The level passed to onTrimMemory.
+     */
+    public void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            cache.evictAll();
+            synchronized (reusableBitmaps) {
+                reusableBitmaps.clear();
+            }
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            cache.trimToSize(cache.maxSize() / 2);
+        }
+    }
+
+    // Runs on the main thread with the result of a background decode; package-private for tests
+    void deliver(long key, int imageResourceId, Bitmap bitmap) {
+        boolean isNew = false;
+        if (bitmap == null) {
+            nonBitmapResources.add(imageResourceId);
+        } else {
+            Bitmap cached = cache.get(key);
+            if (cached != null) {
+                // Another decode of the same image got there first
+                addReusable(bitmap);
+                bitmap = cached;
+            } else {
+                isNew = true;
+            }
+        }
+
+        Iterator<Map.Entry<ImageView, Long>> pending = pendingKeys.entrySet().iterator();
+        while (pending.hasNext()) {
+            Map.Entry<ImageView, Long> entry = pending.next();
+            if (entry.getValue() != key) {
+                continue;
+            }
+            pending.remove();
+            if (bitmap != null) {
+                show(entry.getKey(), bitmap);
+            } else {
+                entry.getKey().setImageResource(imageResourceId);
+            }
+        }
+
+        // Cached only after it is shown, so an immediate eviction cannot hand a visible bitmap out for reuse
+        if (isNew) {
+            cachedBitmaps.add(bitmap);
+            cache.put(key, bitmap);
+        }
+    }
+
+    // Package-private for tests
+    void show(ImageView imageView, Bitmap bitmap) {
+        if (shownBitmaps.get(imageView) == bitmap) {
+            return;
+        }
+        release(imageView);
+        shownBitmaps.put(imageView, bitmap);
+        imageView.setImageBitmap(bitmap);
+    }
+
+    // Forget the bitmap a view was showing; once no view shows it and the cache has dropped it, it can be reused
+    private void release(ImageView imageView) {
+        Bitmap bitmap = shownBitmaps.remove(imageView);
+        if (bitmap != null && !cachedBitmaps.contains(bitmap) && !isShown(bitmap)) {
+            addReusable(bitmap);
+        }
+    }
+
+    // A scan of the live views; there are only as many as the rows on screen and in the recycler pools
+    private boolean isShown(Bitmap bitmap) {
+        return shownBitmaps.containsValue(bitmap);
+    }
+
+    private void addReusable(Bitmap bitmap) {
+        if (!bitmap.isMutable()) {
+            return;
+        }
+        synchronized (reusableBitmaps) {
+            if (reusableBitmaps.size() == REUSABLE_BITMAPS) {
+                reusableBitmaps.remove(0);
+            }
+            reusableBitmaps.add(bitmap);
+        }
+    }
+
+    // Take a reusable bitmap big enough to hold the decoded image, or null if there is none
+    Bitmap takeReusable(int byteCount) {
+        synchronized (reusableBitmaps) {
+            for (int i = 0; i < reusableBitmaps.size(); i++) {
+                Bitmap candidate = reusableBitmaps.get(i);
+                if (candidate.getConfig() == Bitmap.Config.ARGB_8888 && candidate.getAllocationByteCount() >= byteCount) {
+                    return reusableBitmaps.remove(i);
+                }
+            }
+        }
+        return null;
+    }
+
+    // Runs on a decode thread; returns null for resources that are not bitmaps
+    private Bitmap decode(int imageResourceId, int targetWidth, int targetHeight) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        options.inScaled = false;
+        BitmapFactory.decodeResource(resources, imageResourceId, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        // Subsample by a power of two, then let the decoder scale the rest of the way to the target size.
+        // Density scaling of the drawable folder is skipped, so the source pixels are the starting point.
+        int sampleSize = calculateInSampleSize(options.outWidth, options.outHeight, targetWidth, targetHeight);
+        int sampledWidth = options.outWidth / sampleSize;
+        int sampledHeight = options.outHeight / sampleSize;
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        options.inMutable = true;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        if ((long) targetWidth * sampledHeight >= (long) targetHeight * sampledWidth) {
+            setScale(options, sampledWidth, targetWidth);
+        } else {
+            setScale(options, sampledHeight, targetHeight);
+        }
+        int decodedWidth = scaledSize(sampledWidth, options);
+        int decodedHeight = scaledSize(sampledHeight, options);
+
+        options.inBitmap = takeReusable(decodedWidth * decodedHeight * 4);
+        try {
+            return BitmapFactory.decodeResource(resources, imageResourceId, options);
+        } catch (IllegalArgumentException e) {
+            // The reused bitmap did not fit after all; decode into a new one
+            Log.w(TAG, "Could not reuse bitmap: " + e.getMessage());
+            options.inBitmap = null;
+            return BitmapFactory.decodeResource(resources, imageResourceId, options);
+        }
+    }
+
+    // Scale sampled pixels down to the target size; never up
+    private static void setScale(BitmapFactory.Options options, int sampledSize, int targetSize) {
+        if (sampledSize > targetSize) {
+            options.inScaled = true;
+            options.inDensity = sampledSize;
+            options.inTargetDensity = targetSize;
+        }
+    }
+
+    private static int scaledSize(int sampledSize, BitmapFactory.Options options) {
+        return options.inScaled ? (int) (sampledSize * (float) options.inTargetDensity / options.inDensity + 0.5f) : sampledSize;
+    }
+
+    /**
+     * Finds the largest power-of-two subsampling that keeps both sides at
+     * least as large as the target.
+     *
+     * @return The inSampleSize to decode with; at least 1.
+     */
+    static int calculateInSampleSize(int width, int height, int targetWidth, int targetHeight) {
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= targetWidth && height / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    // The measured size, else a fixed size from the layout, else a default
+    private int targetSize(int measuredSize, int layoutSize) {
+        if (measuredSize > 0) {
+            return measuredSize;
+        }
+        if (layoutSize > 0) {
+            return layoutSize;
+        }
+        return Math.round(DEFAULT_TARGET_DP * resources.getDisplayMetrics().density);
+    }
+
+    // Resource id in the high half; width and height in 16 bits each
+    static long cacheKey(int imageResourceId, int targetWidth, int targetHeight) {
+        return ((long) imageResourceId << 32) | ((long) (targetWidth & 0xFFFF) << 16) | (targetHeight & 0xFFFF);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.cafeeight;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Publishes table- and day-range-scoped change events after database
+ * writes commit, so screens refresh only the slice that changed instead of
+ * reloading whole tables.
+ */
+public class Class_InvalidationTracker {
+
+    /**
+     * Receives change events on the main thread.
+     */
+    public interface Observer {
+        /**
+         * Called after rows in the table changed.
+         *
+         * @param table   The table that changed.
+         * @param fromDay The first local epoch day affected.
+         * @param toDay   The last local epoch day affected (inclusive).
+         */
+        void onInvalidated(String table, long fromDay, long toDay);
+    }
+
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Registers an observer for one table until the owner is destroyed.
+     * Must be called on the main thread.
+     *
+     * @param owner    The lifecycle the registration is bound to, e.g. a fragment's view lifecycle.
+     * @param table    The table to observe.
+     * @param observer The observer to notify.
+     */
+    public void observe(LifecycleOwner owner, String table, Observer observer) {
+        if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+            return;
+        }
+        Registration registration = new Registration(table, observer);
+        registrations.add(registration);
+        owner.getLifecycle().addObserver((LifecycleEventObserver) (source, event) -> {
+            if (event == Lifecycle.Event.ON_DESTROY) {
+                registrations.remove(registration);
+            }
+        });
+    }
+
+    /**
+     * Notifies observers of the table that rows for the given days changed.
+     * Safe to call from any thread once the write has committed.
+     *
+     * @param table   The table that changed.
+     * @param fromDay The first local epoch day affected.
+     * @param toDay   The last local epoch day affected (inclusive).
+     */
+    public void notifyChanged(String table, long fromDay, long toDay) {
+        for (Registration registration : registrations) {
+            if (registration.table.equals(table)) {
+                mainHandler.post(() -> {
+                    // Skip observers that went away while the event was in flight
+                    if (registrations.contains(registration)) {
+                        registration.observer.onInvalidated(table, fromDay, toDay);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Notifies observers of the table that any of its rows may have changed.
+     *
+     * @param table The table that changed.
+     */
+    public void notifyChanged(String table) {
+        notifyChanged(table, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    // One observer subscribed to one table
+    private static class Registration {
+        private final String table;
+        private final Observer observer;
+
+        Registration(String table, Observer observer) {
+            this.table = table;
+            this.observer = observer;
+        }
+    }
+}
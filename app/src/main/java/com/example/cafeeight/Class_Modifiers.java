@@ -0,0 +1,113 @@
+package com.example.cafeeight;
+
+/**
+ * Drink modifiers packed into the bits of one int: size, sugar level and
+ * add-ons. A cart line is keyed by its product id and this int together, so
+ * a large latte with an extra shot is its own line while lookups stay a
+ * single hash probe on a long key. The same int is stored with each order
+ * line.
+ */
+public final class Class_Modifiers {
+
+    public static final int NONE = 0;
+
+    // Bit 0: size; regular when clear
+    public static final int SIZE_LARGE = 1;
+
+    // Bits 1-3: sugar level, as an index into SUGAR_PERCENTS; 0 is regular sweetness
+    private static final int SUGAR_SHIFT = 1;
+    private static final int SUGAR_MASK = 0b111 << SUGAR_SHIFT;
+    public static final int[] SUGAR_PERCENTS = {100, 75, 50, 25, 0};
+
+    // Bits 4 and up: add-ons, each with its own price per unit
+    public static final int EXTRA_SHOT = 1 << 4;
+    public static final int OAT_MILK = 1 << 5;
+    public static final int WHIPPED_CREAM = 1 << 6;
+
+    private static final int[] ADD_ONS = {EXTRA_SHOT, OAT_MILK, WHIPPED_CREAM};
+    private static final String[] ADD_ON_NAMES = {"Extra shot", "Oat milk", "Whipped cream"};
+    private static final int[] ADD_ON_PRICES = {20, 25, 15}; // Pesos per unit
+
+    private Class_Modifiers() {
+    }
+
+    /**
+     * Builds the cart key of a line: the product id in the high 32 bits and
+     * the modifiers in the low 32 bits.
+     *
+     * @param productId The menu product id.
+     * @param modifiers The modifier bits.
+     * @return The line key.
+     */
+    public static long lineKey(int productId, int modifiers) {
+        return ((long) productId << 32) | (modifiers & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Replaces the sugar level.
+     *
+     * @param modifiers  The modifier bits.
+     * @param levelIndex An index into SUGAR_PERCENTS.
+     * @return The updated modifier bits.
+     */
+    public static int withSugarLevel(int modifiers, int levelIndex) {
+        return (modifiers & ~SUGAR_MASK) | (levelIndex << SUGAR_SHIFT);
+    }
+
+    public static int getSugarPercent(int modifiers) {
+        int levelIndex = (modifiers & SUGAR_MASK) >>> SUGAR_SHIFT;
+        return levelIndex < SUGAR_PERCENTS.length ? SUGAR_PERCENTS[levelIndex] : SUGAR_PERCENTS[0];
+    }
+
+    /**
+     * Gets the price of the selected add-ons for one unit. Size upcharges
+     * are pricing rules, not part of the unit price.
+     *
+     * @param modifiers The modifier bits.
+     * @return The add-on price per unit.
+     */
+    public static Class_Money getAddOnPrice(int modifiers) {
+        return Class_Money.ofCentavos(getAddOnCentavos(modifiers));
+    }
+
+    // The same as getAddOnPrice, without creating a Class_Money
+    public static long getAddOnCentavos(int modifiers) {
+        long pesos = 0;
+        for (int i = 0; i < ADD_ONS.length; i++) {
+            if ((modifiers & ADD_ONS[i]) != 0) {
+                pesos += ADD_ON_PRICES[i];
+            }
+        }
+        return pesos * 100;
+    }
+
+    /**
+     * Describes the modifiers for the cart and receipts, e.g. "Large, 50% sugar, Extra shot".
+     *
+     * @param modifiers The modifier bits.
+     * @return The description, or "" for a plain drink.
+     */
+    public static String describe(int modifiers) {
+        if (modifiers == NONE) {
+            return "";
+        }
+        StringBuilder description = new StringBuilder();
+        if ((modifiers & SIZE_LARGE) != 0) {
+            description.append("Large");
+        }
+        int sugarPercent = getSugarPercent(modifiers);
+        if (sugarPercent != SUGAR_PERCENTS[0]) {
+            appendSeparator(description).append(sugarPercent).append("% sugar");
+        }
+        for (int i = 0; i < ADD_ONS.length; i++) {
+            if ((modifiers & ADD_ONS[i]) != 0) {
+                appendSeparator(description).append(ADD_ON_NAMES[i]);
+            }
+        }
+        return description.toString();
+    }
+
+    private static StringBuilder appendSeparator(StringBuilder description) {
+        return description.length() > 0 ? description.append(", ") : description;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.cafeeight;
+
+/**
+ * An amount of money in Philippine pesos, held as a whole number of
+ * centavos so that adding and multiplying prices never drifts the way
+ * floating-point totals do. Instances are immutable.
+ */
+public final class Class_Money implements Comparable<Class_Money> {
+
+    public static final Class_Money ZERO = new Class_Money(0);
+
+    private static final int CENTAVOS_PER_PESO = 100;
+
+    private final long centavos;
+
+    private Class_Money(long centavos) {
+        this.centavos = centavos;
+    }
+
+    /**
+     * Creates an amount from centavos.
+     *
+     * @param centavos The amount in centavos.
+     * @return The amount.
+     */
+    public static Class_Money ofCentavos(long centavos) {
+        return centavos == 0 ? ZERO : new Class_Money(centavos);
+    }
+
+    /**
+     * Creates an amount from whole pesos, as menu prices are listed.
+     *
+     * @param pesos The amount in pesos.
+     * @return The amount.
+     */
+    public static Class_Money ofPesos(long pesos) {
+        return ofCentavos(Math.multiplyExact(pesos, CENTAVOS_PER_PESO));
+    }
+
+    /**
+     * Converts a legacy floating-point peso amount, rounding to the nearest centavo.
+     *
+     * @param pesos The amount in pesos.
+     * @return The amount.
+     */
+    public static Class_Money fromDecimalPesos(double pesos) {
+        return ofCentavos(Math.round(pesos * CENTAVOS_PER_PESO));
+    }
+
+    /**
+     * Gets the amount in centavos.
+     *
+     * @return The centavos.
+     */
+    public long getCentavos() {
+        return centavos;
+    }
+
+    /**
+     * Gets the amount in pesos for display-only uses such as charts.
+     *
+     * @return The amount in pesos.
+     */
+    public double toDecimalPesos() {
+        return (double) centavos / CENTAVOS_PER_PESO;
+    }
+
+    public Class_Money plus(Class_Money other) {
+        return ofCentavos(Math.addExact(centavos, other.centavos));
+    }
+
+    public Class_Money minus(Class_Money other) {
+        return ofCentavos(Math.subtractExact(centavos, other.centavos));
+    }
+
+    /**
+     * Multiplies the amount, e.g. a unit price by a quantity.
+     *
+     * @param quantity The multiplier.
+     * @return The product.
+     */
+    public Class_Money times(long quantity) {
+        return ofCentavos(Math.multiplyExact(centavos, quantity));
+    }
+
+    public boolean isZero() {
+        return centavos == 0;
+    }
+
+    @Override
+    public int compareTo(Class_Money other) {
+        return Long.compare(centavos, other.centavos);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        return centavos == ((Class_Money) obj).centavos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+
+    /**
+     * Formats the amount as "₱1,234.50". Allocates; adapters should use Class_MoneyFormatter.
+     *
+     * @return The formatted amount.
+     */
+    @Override
+    public String toString() {
+        Class_MoneyFormatter formatter = new Class_MoneyFormatter("");
+        formatter.format(centavos);
+        return new String(formatter.getChars(), 0, formatter.length());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.cafeeight;
+
+/**
+ * Formats centavo amounts as "₱1,234.50" into a reusable character buffer,
+ * so list rows can show prices without allocating on every bind. Pass the
+ * result to TextView.setText(char[], int, int), which shows the buffer
+ * itself rather than a copy of it. Each instance therefore belongs to one
+ * view holder or screen, and is not thread-safe.
+ */
+public final class Class_MoneyFormatter {
+
+    private static final char PESO_SIGN = '\u20B1';
+    // Sign, peso sign, 19 digits, 6 group separators, decimal point and 2 decimals
+    private static final int MAX_AMOUNT_LENGTH = 30;
+
+    private final char[] buffer;
+    private final int prefixLength;
+    private int length;
+
+    /**
+     * Creates a formatter whose output always starts with the given label.
+     *
+     * @param prefix Text placed before the amount, e.g. "Price: ", or "" for none.
+     */
+    public Class_MoneyFormatter(String prefix) {
+        this.prefixLength = prefix.length();
+        this.buffer = new char[prefixLength + MAX_AMOUNT_LENGTH];
+        prefix.getChars(0, prefixLength, buffer, 0);
+        this.length = prefixLength;
+    }
+
+    /**
+     * Formats an amount, replacing the previous one.
+     *
+     * @param money The amount.
+     * @return This formatter, for chaining into getChars and length.
+     */
+    public Class_MoneyFormatter format(Class_Money money) {
+        return format(money.getCentavos());
+    }
+
+    /**
+     * Formats an amount given in centavos, replacing the previous one.
+     *
+     * @param centavos The amount in centavos.
+     * @return This formatter, for chaining into getChars and length.
+     */
+    public Class_MoneyFormatter format(long centavos) {
+        int position = prefixLength;
+        // Work with a non-positive value so Long.MIN_VALUE does not overflow
+        long remaining = centavos > 0 ? -centavos : centavos;
+        if (centavos < 0) {
+            buffer[position++] = '-';
+        }
+        buffer[position++] = PESO_SIGN;
+
+        long pesos = -(remaining / 100);
+        int cents = (int) -(remaining % 100);
+
+        int digits = 1;
+        for (long value = pesos / 10; value > 0; value /= 10) {
+            digits++;
+        }
+        int end = position + digits + (digits - 1) / 3;
+        int write = end - 1;
+        int digitCount = 0;
+        do {
+            if (digitCount > 0 && digitCount % 3 == 0) {
+                buffer[write--] = ',';
+            }
+            buffer[write--] = (char) ('0' + pesos % 10);
+            pesos /= 10;
+            digitCount++;
+        } while (pesos > 0);
+
+        buffer[end] = '.';
+        buffer[end + 1] = (char) ('0' + cents / 10);
+        buffer[end + 2] = (char) ('0' + cents % 10);
+        length = end + 3;
+        return this;
+    }
+
+    /**
+     * Gets the buffer holding the formatted text; only the first length() characters are valid.
+     *
+     * @return The shared character buffer.
+     */
+    public char[] getChars() {
+        return buffer;
+    }
+
+    /**
+     * Gets the length of the formatted text, including the prefix.
+     *
+     * @return The number of valid characters.
+     */
+    public int length() {
+        return length;
+    }
+}
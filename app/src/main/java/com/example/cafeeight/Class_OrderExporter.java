@@ -0,0 +1,263 @@
+package com.example.cafeeight;
+
+import android.database.Cursor;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams query results straight from a Cursor into a CSV or JSON file.
+ * Rows are written one at a time through a buffered writer, so memory use
+ * stays constant however many orders are exported. The file is written
+ * under a temporary name and only renamed once it is complete.
+ */
+public class Class_OrderExporter {
+
+    /** Output file formats. */
+    public enum Format {
+        CSV("csv"),
+        JSON("json");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /** Receives progress while rows are written, on the exporting thread. */
+    public interface ProgressListener {
+        void onProgress(long exportedRows, long totalRows);
+    }
+
+    /** Snapshot of an export in progress, as published to the UI. */
+    public static class Progress {
+        private final long exportedRows;
+        private final long totalRows;
+        private final File file;
+        private final boolean failed;
+
+        public Progress(long exportedRows, long totalRows, File file, boolean failed) {
+            this.exportedRows = exportedRows;
+            this.totalRows = totalRows;
+            this.file = file;
+            this.failed = failed;
+        }
+
+        public long getExportedRows() {
+            return exportedRows;
+        }
+
+        public long getTotalRows() {
+            return totalRows;
+        }
+
+        /** @return The finished file, or null while the export is still running or if it failed. */
+        public File getFile() {
+            return file;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        public boolean isDone() {
+            return file != null || failed;
+        }
+    }
+
+    // Report progress every this many rows rather than on every row
+    private static final int PROGRESS_INTERVAL = 500;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private Class_OrderExporter() {
+    }
+
+    /**
+     * Writes every row of the cursor to the output file, using the cursor's
+     * column names as the CSV header or JSON keys. The cursor is closed when done.
+     *
+     * @param cursor     Rows to export, positioned before the first row.
+     * @param totalRows  Expected row count, used only for progress reporting.
+     * @param outputFile File to create or replace.
+     * @param format     CSV or JSON.
+     * @param listener   Progress callback, or null.
+     * @return The number of rows written.
+     * @throws IOException If the file cannot be written; no partial file is left behind.
+     */
+    public static long export(Cursor cursor, long totalRows, File outputFile, Format format,
+                              ProgressListener listener) throws IOException {
+        File tempFile = new File(outputFile.getPath() + ".tmp");
+        long exportedRows = 0;
+        boolean succeeded = false;
+
+        try (Writer writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            String[] columns = cursor.getColumnNames();
+            // Reused for every row so the loop does not allocate per value
+            StringBuilder line = new StringBuilder(256);
+
+            if (format == Format.CSV) {
+                writeCsvHeader(writer, line, columns);
+            } else {
+                writer.write("[\n");
+            }
+
+            while (cursor.moveToNext()) {
+                line.setLength(0);
+                if (format == Format.CSV) {
+                    appendCsvRow(line, cursor, columns.length);
+                } else {
+                    appendJsonRow(line, cursor, columns, exportedRows == 0);
+                }
+                writer.append(line);
+
+                exportedRows++;
+                if (listener != null && exportedRows % PROGRESS_INTERVAL == 0) {
+                    listener.onProgress(exportedRows, totalRows);
+                }
+            }
+
+            if (format == Format.JSON) {
+                writer.write(exportedRows == 0 ? "]\n" : "\n]\n");
+            }
+            succeeded = true;
+        } finally {
+            cursor.close();
+            if (!succeeded) {
+                tempFile.delete();
+            }
+        }
+
+        if (!tempFile.renameTo(outputFile)) {
+            tempFile.delete();
+            throw new IOException("Could not move export to " + outputFile);
+        }
+        if (listener != null) {
+            listener.onProgress(exportedRows, totalRows);
+        }
+        return exportedRows;
+    }
+
+    private static void writeCsvHeader(Writer writer, StringBuilder line, String[] columns) throws IOException {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            appendCsvValue(line, columns[i]);
+        }
+        line.append("\r\n");
+        writer.append(line);
+    }
+
+    private static void appendCsvRow(StringBuilder line, Cursor cursor, int columnCount) {
+        for (int i = 0; i < columnCount; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            switch (cursor.getType(i)) {
+                case Cursor.FIELD_TYPE_NULL:
+                    break;
+                case Cursor.FIELD_TYPE_INTEGER:
+                    line.append(cursor.getLong(i));
+                    break;
+                case Cursor.FIELD_TYPE_FLOAT:
+                    line.append(cursor.getDouble(i));
+                    break;
+                default:
+                    appendCsvValue(line, cursor.getString(i));
+                    break;
+            }
+        }
+        line.append("\r\n");
+    }
+
+    // Quote the value only when it contains a separator, quote or line break (RFC 4180)
+    private static void appendCsvValue(StringBuilder line, String value) {
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private static void appendJsonRow(StringBuilder line, Cursor cursor, String[] columns, boolean isFirstRow) {
+        line.append(isFirstRow ? "  {" : ",\n  {");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                line.append(", ");
+            }
+            appendJsonString(line, columns[i]);
+            line.append(": ");
+            switch (cursor.getType(i)) {
+                case Cursor.FIELD_TYPE_NULL:
+                    line.append("null");
+                    break;
+                case Cursor.FIELD_TYPE_INTEGER:
+                    line.append(cursor.getLong(i));
+                    break;
+                case Cursor.FIELD_TYPE_FLOAT:
+                    line.append(cursor.getDouble(i));
+                    break;
+                default:
+                    appendJsonString(line, cursor.getString(i));
+                    break;
+            }
+        }
+        line.append('}');
+    }
+
+    private static void appendJsonString(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                    break;
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.cafeeight;
+
+/**
+ * A price adjustment applied to a cart or order by a pricing rule: either a
+ * discount, with a negative amount, or an upcharge such as a size charge,
+ * with a positive one. Instances are immutable.
+ */
+public class Class_PriceAdjustment {
+
+    private final String ruleId;
+    private final String description;
+    private final Class_Money amount;
+
+    /**
+     * Constructor for Class_PriceAdjustment.
+     *
+     * @param ruleId      The id of the rule that produced the adjustment.
+     * @param description The text shown for the adjustment.
+     * @param amount      The signed adjustment.
+     */
+    public Class_PriceAdjustment(String ruleId, String description, Class_Money amount) {
+        this.ruleId = ruleId;
+        this.description = description;
+        this.amount = amount;
+    }
+
+    /**
+     * Gets the id of the rule that produced the adjustment.
+     *
+     * @return The rule id.
+     */
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    /**
+     * Gets the text shown for the adjustment.
+     *
+     * @return The description.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Gets the signed adjustment; negative for a discount.
+     *
+     * @return The amount.
+     */
+    public Class_Money getAmount() {
+        return amount;
+    }
+
+    /**
+     * Whether this adjustment lowers the price, as opposed to an upcharge.
+     *
+     * @return True for a discount.
+     */
+    public boolean isDiscount() {
+        return amount.getCentavos() < 0;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.cafeeight;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * The active pricing rules, indexed by the products they read. A cart asks
+ * the engine which rules depend on the product whose line changed and
+ * evaluates only those, so the cost of a cart change does not grow with the
+ * number of rules. Immutable once built and shared by every cart.
+ */
+public class Class_PricingEngine {
+
+    private final List<Class_PricingRule> rules;
+    // Rule positions by product id
+    private final Map<Integer, int[]> rulesByProduct = new HashMap<>();
+    // Positions of rules that list no products and so read every line; also used for products no rule lists
+    private final int[] everyProductRules;
+    // Positions of rules that can change with the time of day alone
+    private final int[] timeDependentRules;
+    private final LongSupplier clock;
+
+    /**
+     * Constructor for Class_PricingEngine.
+     *
+     * @param rules The rules; their positions identify them within a cart.
+     * @param clock Supplies the pricing time in epoch milliseconds.
+     */
+    public Class_PricingEngine(List<Class_PricingRule> rules, LongSupplier clock) {
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+        this.clock = clock;
+
+        int timeDependentCount = 0;
+        int[] timeDependent = new int[rules.size()];
+        int everyProductCount = 0;
+        int[] everyProduct = new int[rules.size()];
+        for (int ruleIndex = 0; ruleIndex < rules.size(); ruleIndex++) {
+            Class_PricingRule rule = rules.get(ruleIndex);
+            if (rule.isTimeDependent()) {
+                timeDependent[timeDependentCount++] = ruleIndex;
+            }
+            if (rule.readsEveryProduct()) {
+                everyProduct[everyProductCount++] = ruleIndex;
+            }
+            for (int productId : rule.getProductIds()) {
+                int[] indexed = rulesByProduct.get(productId);
+                if (indexed == null) {
+                    rulesByProduct.put(productId, new int[]{ruleIndex});
+                } else if (indexed[indexed.length - 1] != ruleIndex) {
+                    int[] grown = Arrays.copyOf(indexed, indexed.length + 1);
+                    grown[indexed.length] = ruleIndex;
+                    rulesByProduct.put(productId, grown);
+                }
+            }
+        }
+        this.timeDependentRules = Arrays.copyOf(timeDependent, timeDependentCount);
+        this.everyProductRules = Arrays.copyOf(everyProduct, everyProductCount);
+
+        // Every product also triggers the rules that read every line, so lookups stay a single probe
+        if (everyProductCount > 0) {
+            for (Map.Entry<Integer, int[]> entry : rulesByProduct.entrySet()) {
+                int[] indexed = entry.getValue();
+                int[] merged = Arrays.copyOf(indexed, indexed.length + everyProductCount);
+                System.arraycopy(everyProductRules, 0, merged, indexed.length, everyProductCount);
+                entry.setValue(merged);
+            }
+        }
+    }
+
+    /**
+     * Creates the engine with the cafe's current promotions.
+     *
+     * @return The engine used by the register.
+     */
+    public static Class_PricingEngine createDefault() {
+        List<Class_PricingRule> rules = new ArrayList<>();
+        rules.add(new Class_PricingRule.HappyHour("happy_hour_iced", "Happy Hour: 20% off iced coffee",
+                20, 14, 17, 201, 202, 203, 204));
+        rules.add(new Class_PricingRule.Bundle("frappe_pair", "Any 2 frappes for ₱280",
+                2, Class_Money.ofPesos(280), 301, 302, 303, 304));
+        rules.add(new Class_PricingRule.Bundle("protein_pair", "Any 2 protein shakes for ₱240",
+                2, Class_Money.ofPesos(240), 501, 502, 503));
+        rules.add(new Class_PricingRule.Upcharge("large_size", "Large size",
+                Class_Money.ofPesos(20), Class_Modifiers.SIZE_LARGE)); // Every product on the menu
+        return new Class_PricingEngine(rules, System::currentTimeMillis);
+    }
+
+    /**
+     * Prices a single line as if it were alone in a cart, e.g. for the
+     * product panel's preview. Nothing is allocated, so it can run on every
+     * choice the cashier makes.
+     *
+     * @param productId    The menu product id.
+     * @param modifiers    The Class_Modifiers bits.
+     * @param unitCentavos The unit price, add-ons included.
+     * @param quantity     The number of units.
+     * @return The line total with every adjustment, in centavos.
+     */
+    public long priceLine(int productId, int modifiers, long unitCentavos, int quantity) {
+        long totalCentavos = unitCentavos * quantity;
+        long now = now();
+        for (int ruleIndex : getRulesForProduct(productId)) {
+            totalCentavos += rules.get(ruleIndex).evaluateLine(modifiers, unitCentavos, quantity, now);
+        }
+        return totalCentavos;
+    }
+
+    int getRuleCount() {
+        return rules.size();
+    }
+
+    Class_PricingRule getRule(int ruleIndex) {
+        return rules.get(ruleIndex);
+    }
+
+    // Positions of the rules that read the product's line; empty if none do
+    int[] getRulesForProduct(int productId) {
+        int[] indexed = rulesByProduct.get(productId);
+        return indexed != null ? indexed : everyProductRules;
+    }
+
+    int[] getTimeDependentRules() {
+        return timeDependentRules;
+    }
+
+    long now() {
+        return clock.getAsLong();
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.cafeeight;
+
+import java.util.Collection;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A promotion or price adjustment applied to the lines of a cart. A rule
+ * names the products it depends on, so the pricing engine only evaluates it
+ * again when one of those lines changes. The result is a signed amount in
+ * centavos: negative for a discount, positive for an upcharge.
+ */
+public abstract class Class_PricingRule {
+
+    private final String ruleId;
+    private final String description;
+    private final int[] productIds;
+
+    /**
+     * Constructor for Class_PricingRule.
+     *
+     * @param ruleId      A stable id, stored with each adjustment row of an order.
+     * @param description The text shown to the cashier and on the order.
+     * @param productIds  The products whose lines this rule reads, whatever their modifiers;
+     *                    none for a rule that reads every line, such as a size upcharge.
+     */
+    protected Class_PricingRule(String ruleId, String description, int... productIds) {
+        this.ruleId = ruleId;
+        this.description = description;
+        this.productIds = productIds.clone();
+    }
+
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    int[] getProductIds() {
+        return productIds;
+    }
+
+    // Whether the rule lists no products and so depends on every line of the cart
+    boolean readsEveryProduct() {
+        return productIds.length == 0;
+    }
+
+    /**
+     * Whether the result can change with the time of day alone, without any
+     * cart change; such rules are evaluated again when the cart is repriced.
+     *
+     * @return True for time-dependent rules.
+     */
+    public boolean isTimeDependent() {
+        return false;
+    }
+
+    /**
+     * Computes this rule's adjustment for the cart.
+     *
+     * @param cart The cart, read through its product lookup only.
+     * @param now  The pricing time in epoch milliseconds.
+     * @return The adjustment in centavos; 0 when the rule does not apply.
+     */
+    abstract long evaluate(Class_Cart cart, long now);
+
+    /**
+     * Computes this rule's adjustment after one line it reads has changed.
+     * The default evaluates the rule again; a rule whose adjustment is a sum
+     * over lines overrides it to apply just the change, so its cost does not
+     * grow with the number of lines in the cart.
+     *
+     * @param cart              The cart, already holding the change.
+     * @param now               The pricing time in epoch milliseconds.
+     * @param currentAdjustment The rule's adjustment before the change.
+     * @param lineBefore        The line before the change, or null if it was added.
+     * @param lineAfter         The line after the change, or null if it was removed.
+     * @return The adjustment in centavos; 0 when the rule does not apply.
+     */
+    long evaluateChange(Class_Cart cart, long now, long currentAdjustment,
+                        Class_CartItem lineBefore, Class_CartItem lineAfter) {
+        return evaluate(cart, now);
+    }
+
+    /**
+     * Computes this rule's adjustment for a cart holding only one line of a
+     * product the rule reads, without building the cart.
+     *
+     * @param modifiers    The line's Class_Modifiers bits.
+     * @param unitCentavos The unit price, add-ons included.
+     * @param quantity     The number of units.
+     * @param now          The pricing time in epoch milliseconds.
+     * @return The adjustment in centavos; 0 when the rule does not apply.
+     */
+    abstract long evaluateLine(int modifiers, long unitCentavos, int quantity, long now);
+
+    /**
+     * A percentage off the listed products during a daily window, e.g. 20% off
+     * iced coffee from 2 PM to 5 PM.
+     */
+    public static class HappyHour extends Class_PricingRule {
+
+        private final int percentOff;
+        private final int startHour;
+        private final int endHour;
+
+        /**
+         * @param percentOff The discount, from 0 to 100.
+         * @param startHour  First local hour of the window, from 0 to 23.
+         * @param endHour    Local hour the window closes, exclusive.
+         */
+        public HappyHour(String ruleId, String description, int percentOff, int startHour, int endHour, int... productIds) {
+            super(ruleId, description, productIds);
+            this.percentOff = percentOff;
+            this.startHour = startHour;
+            this.endHour = endHour;
+        }
+
+        @Override
+        public boolean isTimeDependent() {
+            return true;
+        }
+
+        @Override
+        long evaluate(Class_Cart cart, long now) {
+            if (!isInWindow(now)) {
+                return 0;
+            }
+            long eligibleCentavos = 0;
+            for (int productId : getProductIds()) {
+                for (Class_CartItem item : cart.getLines(productId)) {
+                    eligibleCentavos += item.getTotalPrice().getCentavos();
+                }
+            }
+            return discountOf(eligibleCentavos);
+        }
+
+        @Override
+        long evaluateLine(int modifiers, long unitCentavos, int quantity, long now) {
+            return isInWindow(now) ? discountOf(unitCentavos * quantity) : 0;
+        }
+
+        // Round the discount to the nearest centavo
+        private long discountOf(long eligibleCentavos) {
+            return -((eligibleCentavos * percentOff + 50) / 100);
+        }
+
+        private boolean isInWindow(long now) {
+            long offset = TimeZone.getDefault().getOffset(now);
+            int hour = (int) Math.floorMod(Math.floorDiv(now + offset, TimeUnit.HOURS.toMillis(1)), 24L);
+            return startHour <= endHour
+                    ? hour >= startHour && hour < endHour
+                    : hour >= startHour || hour < endHour; // Window crosses midnight
+        }
+    }
+
+    /**
+     * A fixed price for every group of a set number of units drawn from the
+     * listed products, e.g. any 2 frappes for ₱280. Units are grouped from the
+     * most expensive down, and a group only counts when the bundle price is
+     * lower than what its units would cost on their own.
+     */
+    public static class Bundle extends Class_PricingRule {
+
+        private final int bundleSize;
+        private final long bundleCentavos;
+
+        public Bundle(String ruleId, String description, int bundleSize, Class_Money bundlePrice, int... productIds) {
+            super(ruleId, description, productIds);
+            this.bundleSize = bundleSize;
+            this.bundleCentavos = bundlePrice.getCentavos();
+        }
+
+        @Override
+        long evaluate(Class_Cart cart, long now) {
+            int lineCount = 0;
+            for (int productId : getProductIds()) {
+                lineCount += cart.getLines(productId).size();
+            }
+            // Rules are shared by every cart, so the lines are sorted in scratch arrays the cart owns
+            long[] unitPrices = cart.unitPriceScratch(lineCount);
+            int[] quantities = cart.quantityScratch(lineCount);
+            lineCount = 0;
+            int totalUnits = 0;
+            for (int productId : getProductIds()) {
+                for (Class_CartItem item : cart.getLines(productId)) {
+                    // Insertion sort, highest unit price first; a bundle covers only a handful of lines
+                    long unitPrice = item.getOriginalPrice().getCentavos();
+                    int position = lineCount++;
+                    while (position > 0 && unitPrices[position - 1] < unitPrice) {
+                        unitPrices[position] = unitPrices[position - 1];
+                        quantities[position] = quantities[position - 1];
+                        position--;
+                    }
+                    unitPrices[position] = unitPrice;
+                    quantities[position] = item.getQuantity();
+                    totalUnits += item.getQuantity();
+                }
+            }
+            if (totalUnits < bundleSize) {
+                return 0;
+            }
+
+            long adjustment = 0;
+            long groupCentavos = 0;
+            int groupUnits = 0;
+            int groupsLeft = totalUnits / bundleSize;
+            for (int line = 0; line < lineCount && groupsLeft > 0; line++) {
+                int remaining = quantities[line];
+                while (remaining > 0 && groupsLeft > 0) {
+                    // Take as many units of this line as still fit in the current group
+                    int taken = Math.min(remaining, bundleSize - groupUnits);
+                    groupCentavos += unitPrices[line] * taken;
+                    groupUnits += taken;
+                    remaining -= taken;
+                    if (groupUnits == bundleSize) {
+                        adjustment += Math.min(0, bundleCentavos - groupCentavos);
+                        groupCentavos = 0;
+                        groupUnits = 0;
+                        groupsLeft--;
+                    }
+                }
+            }
+            return adjustment;
+        }
+
+        @Override
+        long evaluateLine(int modifiers, long unitCentavos, int quantity, long now) {
+            // Every group is made of units of the same price
+            return (quantity / bundleSize) * Math.min(0, bundleCentavos - unitCentavos * bundleSize);
+        }
+    }
+
+    /**
+     * A fixed extra charge per unit of the listed products whose lines carry
+     * the required modifiers, e.g. ₱20 for a large drink. With no products
+     * listed it applies to every line, including products added to the menu later.
+     */
+    public static class Upcharge extends Class_PricingRule {
+
+        private final long upchargeCentavos;
+        private final int requiredModifiers;
+
+        /**
+         * @param requiredModifiers Class_Modifiers bits a line must have, or Class_Modifiers.NONE for every line.
+         */
+        public Upcharge(String ruleId, String description, Class_Money upchargePerUnit, int requiredModifiers, int... productIds) {
+            super(ruleId, description, productIds);
+            this.upchargeCentavos = upchargePerUnit.getCentavos();
+            this.requiredModifiers = requiredModifiers;
+        }
+
+        // Linear in the units, so a change only adds the difference; this keeps an every-line upcharge O(1) per change
+        @Override
+        long evaluateChange(Class_Cart cart, long now, long currentAdjustment,
+                            Class_CartItem lineBefore, Class_CartItem lineAfter) {
+            return currentAdjustment + upchargeCentavos * (unitsOf(lineAfter) - unitsOf(lineBefore));
+        }
+
+        @Override
+        long evaluate(Class_Cart cart, long now) {
+            long units = 0;
+            if (readsEveryProduct()) {
+                units = countUnits(cart.getAllLines());
+            } else {
+                for (int productId : getProductIds()) {
+                    units += countUnits(cart.getLines(productId));
+                }
+            }
+            return upchargeCentavos * units;
+        }
+
+        @Override
+        long evaluateLine(int modifiers, long unitCentavos, int quantity, long now) {
+            return (modifiers & requiredModifiers) == requiredModifiers ? upchargeCentavos * quantity : 0;
+        }
+
+        private long countUnits(Collection<Class_CartItem> lines) {
+            long units = 0;
+            for (Class_CartItem item : lines) {
+                units += unitsOf(item);
+            }
+            return units;
+        }
+
+        private long unitsOf(Class_CartItem item) {
+            return item != null && (item.getModifiers() & requiredModifiers) == requiredModifiers ? item.getQuantity() : 0;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.cafeeight;
+
+/**
+ * A product on the menu. The id is stable across menu versions and is what
+ * carts, orders and pricing rules refer to; the name, price and image may
+ * change with a new menu. Instances are immutable.
+ */
+public class Class_Product {
+
+    private final int productId;
+    private final String name;
+    private final String categoryId;
+    private final Class_Money price; // Menu price, before modifiers
+    private final int imageResourceId;
+
+    /**
+     * Constructor for Class_Product.
+     *
+     * @param productId       The stable menu product id.
+     * @param name            The name shown to the cashier.
+     * @param categoryId      The id of the category the product is listed under.
+     * @param price           The menu price.
+     * @param imageResourceId The resource ID of the product image.
+     */
+    public Class_Product(int productId, String name, String categoryId, Class_Money price, int imageResourceId) {
+        this.productId = productId;
+        this.name = name;
+        this.categoryId = categoryId;
+        this.price = price;
+        this.imageResourceId = imageResourceId;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCategoryId() {
+        return categoryId;
+    }
+
+    public Class_Money getPrice() {
+        return price;
+    }
+
+    public int getImageResourceId() {
+        return imageResourceId;
+    }
+}
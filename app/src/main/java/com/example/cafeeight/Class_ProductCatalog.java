@@ -0,0 +1,310 @@
+package com.example.cafeeight;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.os.Build;
+import android.os.FileObserver;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.RequiresApi;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The menu: every product with its category and price, described by a
+ * menu.json file. The copy bundled in the app's assets is read once at
+ * startup, on a background thread, into lookups by product id and by
+ * category. A menu.json with a higher version dropped into the app's files
+ * directory is picked up while the app runs and replaces the menu without a
+ * new release. Readers always
+ * get a complete, immutable Menu; a reload swaps it in one step.
+ */
+public class Class_ProductCatalog {
+
+    private static final String TAG = "Class_ProductCatalog";
+    private static final String FILE_NAME = "menu.json";
+
+    private static Class_ProductCatalog instance;
+
+    private final Context appContext;
+    private final ExecutorService executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Runnable> onMenuChangedListeners = new CopyOnWriteArrayList<>();
+    private volatile Menu menu = Menu.EMPTY;
+    private final CountDownLatch bundledMenuLoaded = new CountDownLatch(1);
+    // Kept so the observer is not garbage collected while it watches the files directory
+    private MenuFileObserver menuFileObserver;
+
+    private Class_ProductCatalog(Context context) {
+        this.appContext = context;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cafe-catalog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the process-wide catalog.
+     *
+     * @param context Any context; only the application context is kept.
+     * @return The shared catalog.
+     */
+    public static synchronized Class_ProductCatalog getInstance(Context context) {
+        if (instance == null) {
+            instance = new Class_ProductCatalog(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Loads the bundled menu, then a newer one from the files directory if
+     * there is one, and watches for one being dropped in. Everything runs on
+     * the catalog thread, so this returns at once; until the bundled menu is
+     * loaded the menu is empty and listeners are told when it arrives.
+     * Call once from Application.onCreate.
+     */
+    public void start() {
+        executor.execute(() -> {
+            try (InputStream in = appContext.getAssets().open(FILE_NAME)) {
+                offer(parse(readFully(in), appContext.getResources(), appContext.getPackageName()));
+            } catch (IOException | JSONException e) {
+                Log.e(TAG, "Could not load the bundled menu: " + e.getMessage());
+            } finally {
+                bundledMenuLoaded.countDown();
+            }
+
+            // getFilesDir may create the directory, so it is resolved here rather than on the main thread
+            File filesDir = appContext.getFilesDir();
+            File menuFile = new File(filesDir, FILE_NAME);
+            loadFile(menuFile);
+            menuFileObserver = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                    ? new MenuFileObserver(filesDir, menuFile)
+                    : new MenuFileObserver(filesDir.getPath(), menuFile);
+            menuFileObserver.startWatching();
+        });
+    }
+
+    /**
+     * Waits for the bundled menu to be loaded, for code that needs products
+     * while the app starts. Never call it from the main thread.
+     *
+     * @return The menu; empty only if the bundled menu could not be read.
+     */
+    public Menu awaitMenu() {
+        try {
+            bundledMenuLoaded.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return menu;
+    }
+
+    /**
+     * Gets the current menu. Hold on to it for the length of one operation
+     * rather than calling this again for each lookup.
+     *
+     * @return The menu; never null.
+     */
+    public Menu getMenu() {
+        return menu;
+    }
+
+    /**
+     * Registers a listener told on the main thread whenever a newer menu is loaded.
+     */
+    public void addOnMenuChangedListener(Runnable listener) {
+        onMenuChangedListeners.add(listener);
+    }
+
+    public void removeOnMenuChangedListener(Runnable listener) {
+        onMenuChangedListeners.remove(listener);
+    }
+
+    // Runs on the catalog thread
+    private void loadFile(File menuFile) {
+        if (!menuFile.exists()) {
+            return;
+        }
+        try (InputStream in = new FileInputStream(menuFile)) {
+            if (offer(parse(readFully(in), appContext.getResources(), appContext.getPackageName()))) {
+                Log.i(TAG, "Loaded menu version " + menu.getVersion());
+            }
+        } catch (IOException | JSONException e) {
+            // A half-copied or malformed file keeps the current menu; the next write is picked up again
+            Log.w(TAG, "Ignoring menu file: " + e.getMessage());
+        }
+    }
+
+    // Reloads the menu when a new menu.json is written or moved into the files directory
+    private class MenuFileObserver extends FileObserver {
+        private static final int EVENTS = FileObserver.CLOSE_WRITE | FileObserver.MOVED_TO;
+        private final File menuFile;
+
+        @RequiresApi(Build.VERSION_CODES.Q)
+        MenuFileObserver(File directory, File menuFile) {
+            super(directory, EVENTS);
+            this.menuFile = menuFile;
+        }
+
+        // The path constructor is the only one before API 29
+        @SuppressWarnings("deprecation")
+        MenuFileObserver(String directory, File menuFile) {
+            super(directory, EVENTS);
+            this.menuFile = menuFile;
+        }
+
+        @Override
+        public void onEvent(int event, String path) {
+            if (FILE_NAME.equals(path)) {
+                executor.execute(() -> loadFile(menuFile));
+            }
+        }
+    }
+
+    /**
+     * Replaces the menu if the candidate has a higher version.
+     *
+     * @param candidate A parsed menu.
+     * @return True if the candidate became the current menu.
+     */
+    synchronized boolean offer(Menu candidate) {
+        if (candidate.getVersion() <= menu.getVersion()) {
+            return false;
+        }
+        menu = candidate;
+        mainHandler.post(() -> {
+            for (Runnable listener : onMenuChangedListeners) {
+                listener.run();
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Parses a menu file. Image names are resolved to drawable resources
+     * here, once, so binding a product never looks them up.
+     *
+     * @param json        The contents of a menu.json file.
+     * @param resources   Resources to resolve image names against.
+     * @param packageName The package the drawables belong to.
+     * @return The parsed menu.
+     */
+    static Menu parse(String json, Resources resources, String packageName) throws JSONException {
+        JSONObject root = new JSONObject(json);
+        Map<String, String> categoryNames = new LinkedHashMap<>();
+        Map<Integer, Class_Product> productsById = new HashMap<>();
+        Map<String, List<Class_Product>> productsByCategory = new HashMap<>();
+
+        JSONArray categories = root.getJSONArray("categories");
+        for (int i = 0; i < categories.length(); i++) {
+            JSONObject category = categories.getJSONObject(i);
+            String categoryId = category.getString("id");
+            categoryNames.put(categoryId, category.getString("name"));
+
+            JSONArray products = category.getJSONArray("products");
+            List<Class_Product> categoryProducts = new ArrayList<>(products.length());
+            for (int j = 0; j < products.length(); j++) {
+                JSONObject product = products.getJSONObject(j);
+                int imageResourceId = resources.getIdentifier(product.optString("image"), "drawable", packageName);
+                Class_Product parsed = new Class_Product(product.getInt("id"), product.getString("name"), categoryId,
+                        Class_Money.ofCentavos(product.getLong("priceCentavos")),
+                        imageResourceId != 0 ? imageResourceId : R.drawable.ic_launcher_foreground);
+                if (productsById.put(parsed.getProductId(), parsed) != null) {
+                    throw new JSONException("Duplicate product id " + parsed.getProductId());
+                }
+                categoryProducts.add(parsed);
+            }
+            productsByCategory.put(categoryId, Collections.unmodifiableList(categoryProducts));
+        }
+        return new Menu(root.getInt("version"), categoryNames, productsById, productsByCategory);
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * One version of the menu, indexed by product id and by category.
+     * Immutable, so it can be read from any thread.
+     */
+    public static final class Menu {
+
+        static final Menu EMPTY = new Menu(0, Collections.<String, String>emptyMap(),
+                Collections.<Integer, Class_Product>emptyMap(), Collections.<String, List<Class_Product>>emptyMap());
+
+        private final int version;
+        private final Map<String, String> categoryNames; // In menu order
+        private final Map<Integer, Class_Product> productsById;
+        private final Map<String, List<Class_Product>> productsByCategory;
+
+        Menu(int version, Map<String, String> categoryNames, Map<Integer, Class_Product> productsById,
+             Map<String, List<Class_Product>> productsByCategory) {
+            this.version = version;
+            this.categoryNames = Collections.unmodifiableMap(categoryNames);
+            this.productsById = Collections.unmodifiableMap(productsById);
+            this.productsByCategory = Collections.unmodifiableMap(productsByCategory);
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        /**
+         * Gets a product by its id.
+         *
+         * @param productId The menu product id.
+         * @return The product, or null if this menu does not list it.
+         */
+        public Class_Product getProduct(int productId) {
+            return productsById.get(productId);
+        }
+
+        /**
+         * Gets the products of a category, in menu order.
+         *
+         * @param categoryId The category id, e.g. "hot_coffee".
+         * @return The products; empty if this menu has no such category.
+         */
+        public List<Class_Product> getProducts(String categoryId) {
+            List<Class_Product> products = productsByCategory.get(categoryId);
+            return products != null ? products : Collections.<Class_Product>emptyList();
+        }
+
+        // Category ids mapped to their display names, in menu order
+        public Map<String, String> getCategoryNames() {
+            return categoryNames;
+        }
+
+        public int getProductCount() {
+            return productsById.size();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.cafeeight;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Shows the products of one menu category as a grid of cells. Every
+ * category uses this adapter with the same cell layout, and their grids
+ * share one RecycledViewPool, so switching categories rebinds cells that
+ * are already inflated instead of inflating new ones.
+ */
+public class Class_ProductGridAdapter extends ListAdapter<Class_Product, Class_ProductGridAdapter.ProductViewHolder> {
+
+    private static final int SPAN_COUNT = 2;
+    // Enough recycled cells to fill a whole grid screen and then some
+    private static final int POOLED_CELLS = 12;
+
+    private final OnProductClickListener productClickListener;
+
+    // Interface to handle product taps
+    public interface OnProductClickListener {
+        void onProductClick(int productId);
+    }
+
+    // Products are the same cell when they have the same id; a menu reload may change what the cell shows
+    private static final DiffUtil.ItemCallback<Class_Product> DIFF_CALLBACK = new DiffUtil.ItemCallback<Class_Product>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Class_Product oldItem, @NonNull Class_Product newItem) {
+            return oldItem.getProductId() == newItem.getProductId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Class_Product oldItem, @NonNull Class_Product newItem) {
+            return oldItem.getName().equals(newItem.getName())
+                    && oldItem.getPrice().equals(newItem.getPrice())
+                    && oldItem.getImageResourceId() == newItem.getImageResourceId();
+        }
+    };
+
+    // Constructor
+    public Class_ProductGridAdapter(OnProductClickListener productClickListener) {
+        super(DIFF_CALLBACK);
+        this.productClickListener = productClickListener;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Creates the view pool shared by every category grid of one activity.
+     *
+     * @return A pool sized for a full grid screen.
+     */
+    public static RecyclerView.RecycledViewPool createSharedPool() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.setMaxRecycledViews(0, POOLED_CELLS);
+        return pool;
+    }
+
+    /**
+     * Sets up a grid to show this adapter with cells from the shared pool.
+     *
+     * @param grid       The category's RecyclerView.
+     * @param sharedPool The activity's pool from createSharedPool().
+     */
+    public void attachTo(RecyclerView grid, RecyclerView.RecycledViewPool sharedPool) {
+        GridLayoutManager layoutManager = new GridLayoutManager(grid.getContext(), SPAN_COUNT);
+        // Hand the cells back to the shared pool when this grid is detached, e.g. its page is recycled
+        layoutManager.setRecycleChildrenOnDetach(true);
+        grid.setLayoutManager(layoutManager);
+        grid.setRecycledViewPool(sharedPool);
+        grid.setHasFixedSize(true);
+        grid.setAdapter(this);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getProductId();
+    }
+
+    // Create new view holders
+    @NonNull
+    @Override
+    public ProductViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.row_product, parent, false);
+        return new ProductViewHolder(view);
+    }
+
+    // Bind data to view holders
+    @Override
+    public void onBindViewHolder(@NonNull ProductViewHolder holder, int position) {
+        holder.bind(getItem(position), productClickListener);
+    }
+
+    // Let go of the cell's image so the loader can reuse it once it leaves the cache
+    @Override
+    public void onViewRecycled(@NonNull ProductViewHolder holder) {
+        Class_ImageLoader.getInstance(holder.itemView.getContext()).clear(holder.productImage);
+    }
+
+    // View holder for one product cell
+    public static class ProductViewHolder extends RecyclerView.ViewHolder {
+        private final TextView nameTxt, priceTxt;
+        private final ImageView productImage;
+        private final Class_MoneyFormatter priceFormatter = new Class_MoneyFormatter("");
+        private Class_Product boundProduct;
+        // Pooled cells move between adapters, so the listener comes with each bind
+        private OnProductClickListener productClickListener;
+
+        // Constructor
+        public ProductViewHolder(@NonNull View itemView) {
+            super(itemView);
+            nameTxt = itemView.findViewById(R.id.nameProduct);
+            priceTxt = itemView.findViewById(R.id.priceProduct);
+            productImage = itemView.findViewById(R.id.imgProduct);
+
+            // Set the click listener once; it acts on whichever product is bound when tapped
+            itemView.setOnClickListener(v -> {
+                if (productClickListener != null && boundProduct != null) {
+                    productClickListener.onProductClick(boundProduct.getProductId());
+                }
+            });
+        }
+
+        // Bind data to views in the view holder
+        public void bind(Class_Product product, OnProductClickListener productClickListener) {
+            this.boundProduct = product;
+            this.productClickListener = productClickListener;
+
+            nameTxt.setText(product.getName());
+            priceFormatter.format(product.getPrice());
+            priceTxt.setText(priceFormatter.getChars(), 0, priceFormatter.length());
+            // Decoded off the main thread at the cell's size, then served from memory on every rebind
+            Class_ImageLoader.getInstance(itemView.getContext()).load(product.getImageResourceId(), productImage);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.cafeeight;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.CheckBox;
+import android.widget.ImageView;
+import android.widget.RadioGroup;
+import android.widget.TextView;
+import android.widget.Toast;
+import com.google.android.material.bottomsheet.BottomSheetDialog;
+
+/**
+ * The product panel, shown in a bottom sheet over the menu, where a drink's
+ * size, sugar level and add-ons are picked before it goes into the cart.
+ * Activity_Main builds it once and every category grid reuses it, so
+ * choosing a drink only rebinds the views instead of starting an activity
+ * and inflating its layout.
+ */
+public class Class_ProductSheet {
+
+    // Sugar buttons in the order of Class_Modifiers.SUGAR_PERCENTS
+    private static final int[] SUGAR_BUTTON_IDS = {R.id.sugar100, R.id.sugar75, R.id.sugar50, R.id.sugar25, R.id.sugar0};
+
+    private final Context context;
+    private final BottomSheetDialog dialog;
+
+    // UI components
+    private ImageView imageView;
+    private TextView textView;
+    private TextView priceTxt;
+    private TextView addToCartBtn;
+    private RadioGroup sizeGroup, sugarGroup;
+    private CheckBox extraShotCheck, oatMilkCheck, whippedCreamCheck;
+    private final Class_MoneyFormatter priceFormatter = new Class_MoneyFormatter("");
+
+    // Item details
+    private int productId;
+    private String selectedName = "";
+    private int selectedImage;
+    private Class_Money originalPrice = Class_Money.ZERO; // Menu price, before add-ons
+    private int modifiers = Class_Modifiers.NONE;
+    private int numberOrder = 1;
+
+    // Prices the current selection for the preview
+    private final Class_PricingEngine pricingEngine;
+    // Set while the choices are reset for a new product, so each reset does not reprice
+    private boolean isBinding;
+
+    public Class_ProductSheet(Context context) {
+        this.context = context;
+        this.pricingEngine = Class_CartManager.getInstance().getPricingEngine();
+
+        // Inflate the panel once; show() only rebinds it
+        View view = LayoutInflater.from(context).inflate(R.layout.sheet_product, null, false);
+        dialog = new BottomSheetDialog(context);
+        dialog.setContentView(view);
+
+        // Initialize views
+        initializeViews(view);
+
+        // Set click listener for add to cart button
+        addToCartBtn.setOnClickListener(v -> addToCart());
+
+        // Each choice updates the modifier bits and the price shown
+        sizeGroup.setOnCheckedChangeListener((group, checkedId) ->
+                setModifier(Class_Modifiers.SIZE_LARGE, checkedId == R.id.sizeLarge));
+        sugarGroup.setOnCheckedChangeListener((group, checkedId) -> {
+            int levelIndex = sugarLevelOf(checkedId);
+            if (levelIndex < 0) {
+                return; // Cleared, or not a sugar button; keep the current level
+            }
+            modifiers = Class_Modifiers.withSugarLevel(modifiers, levelIndex);
+            updatePrice();
+        });
+        extraShotCheck.setOnCheckedChangeListener((button, isChecked) -> setModifier(Class_Modifiers.EXTRA_SHOT, isChecked));
+        oatMilkCheck.setOnCheckedChangeListener((button, isChecked) -> setModifier(Class_Modifiers.OAT_MILK, isChecked));
+        whippedCreamCheck.setOnCheckedChangeListener((button, isChecked) -> setModifier(Class_Modifiers.WHIPPED_CREAM, isChecked));
+    }
+
+    // Show the panel for a menu product, with the default size, sugar level and no add-ons
+    public void show(int productId) {
+        Class_Product product = Class_ProductCatalog.getInstance(context).getMenu().getProduct(productId);
+        if (product == null) {
+            return; // Dropped by a menu reload since the grid was drawn
+        }
+        this.productId = productId;
+        this.selectedName = product.getName();
+        this.selectedImage = product.getImageResourceId();
+        this.originalPrice = product.getPrice();
+
+        isBinding = true;
+        modifiers = Class_Modifiers.NONE;
+        sizeGroup.check(R.id.sizeRegular);
+        sugarGroup.check(R.id.sugar100);
+        extraShotCheck.setChecked(false);
+        oatMilkCheck.setChecked(false);
+        whippedCreamCheck.setChecked(false);
+        isBinding = false;
+
+        textView.setText(selectedName);
+        Class_ImageLoader.getInstance(context).load(selectedImage, imageView);
+        updatePrice();
+        dialog.show();
+    }
+
+    public void dismiss() {
+        dialog.dismiss();
+    }
+
+    // Turn one size or add-on bit on or off
+    private void setModifier(int modifier, boolean isSelected) {
+        modifiers = isSelected ? modifiers | modifier : modifiers & ~modifier;
+        updatePrice();
+    }
+
+    // The index into Class_Modifiers.SUGAR_PERCENTS of a sugar button, or -1 for any other id
+    private static int sugarLevelOf(int checkedId) {
+        for (int levelIndex = 0; levelIndex < SUGAR_BUTTON_IDS.length; levelIndex++) {
+            if (SUGAR_BUTTON_IDS[levelIndex] == checkedId) {
+                return levelIndex;
+            }
+        }
+        return -1;
+    }
+
+    // Initialize UI views
+    private void initializeViews(View view) {
+        imageView = view.findViewById(R.id.imageView);
+        textView = view.findViewById(R.id.tvname);
+        priceTxt = view.findViewById(R.id.itemPrice);
+        addToCartBtn = view.findViewById(R.id.addToCartBtn);
+        sizeGroup = view.findViewById(R.id.sizeGroup);
+        sugarGroup = view.findViewById(R.id.sugarGroup);
+        extraShotCheck = view.findViewById(R.id.extraShotCheck);
+        oatMilkCheck = view.findViewById(R.id.oatMilkCheck);
+        whippedCreamCheck = view.findViewById(R.id.whippedCreamCheck);
+    }
+
+    // Update total price based on quantity and modifiers, including the size upcharge and any promotion
+    private void updatePrice() {
+        if (isBinding) {
+            return;
+        }
+        // Priced straight from the rules, so a choice creates no cart line or money objects
+        long unitCentavos = originalPrice.getCentavos() + Class_Modifiers.getAddOnCentavos(modifiers);
+        priceFormatter.format(pricingEngine.priceLine(productId, modifiers, unitCentavos, numberOrder));
+        priceTxt.setText(priceFormatter.getChars(), 0, priceFormatter.length());
+    }
+
+    // Add the item to the cart and close the panel
+    private void addToCart() {
+        // Add the item to the cart; the same drink with other modifiers becomes its own line
+        if (!Class_CartManager.getInstance().addToCart(createCartItem())) {
+            // The tab's order is being written; keep the panel open so the selection is not lost
+            showToast("This tab is being checked out. Start a new tab to add items.");
+            return;
+        }
+        dialog.dismiss();
+
+        showToast("Item added to cart");
+    }
+
+    // Build the cart line for the current selection
+    private Class_CartItem createCartItem() {
+        // Add-ons are part of the unit price; the large size is an upcharge rule in the pricing engine
+        Class_Money unitPrice = originalPrice.plus(Class_Modifiers.getAddOnPrice(modifiers));
+        return new Class_CartItem(productId, modifiers, selectedName, numberOrder, unitPrice, selectedImage);
+    }
+
+    // Show a Toast message
+    private void showToast(String message) {
+        Toast.makeText(context, message, Toast.LENGTH_SHORT).show();
+    }
+}
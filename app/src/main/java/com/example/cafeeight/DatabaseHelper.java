@@ -3,54 +3,179 @@ package com.example.cafeeight;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
 
 
+import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 
 public class DatabaseHelper extends SQLiteOpenHelper {
 
     private static final String DATABASE_NAME = "CafeEightDB";
-    private static final int DATABASE_VERSION = 4;
+    private static final int DATABASE_VERSION = 11;
 
     private static final String TABLE_USERS = "Users";
     private static final String USER_ID = "id";
     private static final String USER_EMAIL = "email";
     private static final String USER_PASSWORD = "password";
 
-    private static final String TABLE_ORDERS = "Orders";
+    public static final String TABLE_ORDERS = "Orders";
     private static final String ORDER_ID = "order_id";
-    private static final String ORDER_TOTAL_AMOUNT = "total_amount";
+    private static final String ORDER_TOTAL_CENTAVOS = "total_centavos";
     private static final String ORDER_TOTAL_ITEMS = "total_items";
     private static final String ORDER_DATE = "order_date";
+    private static final String ORDER_TIMESTAMP = "order_timestamp"; // epoch millis
+    private static final String ORDER_DAY = "order_day"; // local epoch day
+
+    private static final String TABLE_ORDER_ITEMS = "OrderItems";
+    private static final String ORDER_ITEM_ID = "order_item_id";
+    private static final String ORDER_ITEM_ORDER_ID = "order_id";
+    private static final String ORDER_ITEM_PRODUCT_ID = "product_id"; // 0 for lines saved before version 10
+    private static final String ORDER_ITEM_MODIFIERS = "modifiers"; // Class_Modifiers bits
+    private static final String ORDER_ITEM_NAME = "item_name";
+    private static final String ORDER_ITEM_QUANTITY = "quantity";
+    private static final String ORDER_ITEM_UNIT_PRICE_CENTAVOS = "unit_price_centavos";
+    private static final String ORDER_ITEM_LINE_TOTAL_CENTAVOS = "line_total_centavos";
+
+    // Adjustments from the pricing rules, one row per rule that applied to the order. Discount reports
+    // filter on the kind, so upcharges such as the size charge are never netted against real discounts.
+    private static final String TABLE_ORDER_ADJUSTMENTS = "OrderAdjustments";
+    private static final String ORDER_ADJUSTMENT_ID = "order_adjustment_id";
+    private static final String ORDER_ADJUSTMENT_ORDER_ID = "order_id";
+    private static final String ORDER_ADJUSTMENT_RULE_ID = "rule_id";
+    private static final String ORDER_ADJUSTMENT_DESCRIPTION = "description";
+    private static final String ORDER_ADJUSTMENT_KIND = "kind"; // ADJUSTMENT_KIND_DISCOUNT or ADJUSTMENT_KIND_UPCHARGE
+    private static final String ORDER_ADJUSTMENT_AMOUNT_CENTAVOS = "amount_centavos"; // negative for discounts
+    static final String ADJUSTMENT_KIND_DISCOUNT = "discount";
+    static final String ADJUSTMENT_KIND_UPCHARGE = "upcharge";
+    // Versions 9 and 10 kept the same rows, upcharges included, under this name
+    private static final String LEGACY_TABLE_ORDER_DISCOUNTS = "OrderDiscounts";
+
+    // Rollups maintained alongside Orders so dashboard reads scale with the days shown, not the order count
+    public static final String TABLE_DAILY_SALES = "DailySales";
+    private static final String DAILY_SALES_DAY = "sales_day"; // local epoch day
+    public static final String TABLE_HOURLY_SALES = "HourlySales";
+    private static final String HOURLY_SALES_HOUR = "sales_hour"; // local epoch hour
+    private static final String ROLLUP_TOTAL_CENTAVOS = "total_centavos";
+    private static final String ROLLUP_ORDER_COUNT = "order_count";
+    private static final String ROLLUP_ITEM_COUNT = "item_count";
+
+    // Read queries, package-private so the latency tests can check their query plans
+    static final String QUERY_TODAY_SALES = "SELECT " + ORDER_DATE + ", SUM(" + ORDER_TOTAL_CENTAVOS + ") AS total_centavos " +
+            "FROM " + TABLE_ORDERS +
+            " WHERE " + ORDER_DAY + " = ?" +
+            " GROUP BY " + ORDER_DATE;
+    static final String QUERY_DAILY_SALES = "SELECT " + DAILY_SALES_DAY + ", " + ROLLUP_TOTAL_CENTAVOS +
+            " FROM " + TABLE_DAILY_SALES +
+            " WHERE " + DAILY_SALES_DAY + " BETWEEN ? AND ?";
+    static final String QUERY_HOURLY_SALES = "SELECT " + HOURLY_SALES_HOUR + ", " + ROLLUP_TOTAL_CENTAVOS +
+            " FROM " + TABLE_HOURLY_SALES +
+            " WHERE " + HOURLY_SALES_HOUR + " BETWEEN ? AND ?";
+    static final String QUERY_ORDERS_PAGE = "SELECT " + ORDER_ID + ", " + ORDER_TOTAL_CENTAVOS + ", " + ORDER_TOTAL_ITEMS + ", " + ORDER_DATE +
+            " FROM " + TABLE_ORDERS +
+            " WHERE " + ORDER_ID + " < ?" +
+            " ORDER BY " + ORDER_ID + " DESC" +
+            " LIMIT ?";
+    // Exported amounts stay in pesos; the shortest double text of centavos / 100.0 is the exact amount, e.g. 123.45
+    static final String QUERY_ORDERS_FOR_EXPORT = "SELECT " + ORDER_ID + ", " + ORDER_DATE + ", " + ORDER_TIMESTAMP + ", " + ORDER_TOTAL_ITEMS + ", " +
+            ORDER_TOTAL_CENTAVOS + " / 100.0 AS total_amount" +
+            " FROM " + TABLE_ORDERS +
+            " WHERE " + ORDER_TIMESTAMP + " >= ? AND " + ORDER_TIMESTAMP + " < ?" +
+            " ORDER BY " + ORDER_TIMESTAMP;
+    static final String QUERY_ORDERS_NEWER_THAN = "SELECT " + ORDER_ID + ", " + ORDER_TOTAL_CENTAVOS + ", " + ORDER_TOTAL_ITEMS + ", " + ORDER_DATE +
+            " FROM " + TABLE_ORDERS +
+            " WHERE " + ORDER_ID + " > ?" +
+            " ORDER BY " + ORDER_ID + " DESC";
 
     private static final String DATE_FORMAT = "yyyy-MM-dd hh:mm a";
 
-    private OnOrderInsertedListener orderInsertedListener;
+    private static DatabaseHelper instance;
 
+    private final Class_InvalidationTracker invalidationTracker = new Class_InvalidationTracker();
 
-    public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    // Single process-wide helper so the connection stays open between calls
+    public static synchronized DatabaseHelper getInstance(Context context) {
+        if (instance == null) {
+            instance = new DatabaseHelper(context.getApplicationContext(), DATABASE_NAME);
+        }
+        return instance;
+    }
+
+    // Package-private so tests can open a separate database file
+    DatabaseHelper(Context context, String databaseName) {
+        super(context, databaseName, null, DATABASE_VERSION);
+        // Write-ahead logging lets readers run alongside the checkout writer
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    // Screens subscribe here to hear about committed changes to Orders and the sales rollups
+    public Class_InvalidationTracker getInvalidationTracker() {
+        return invalidationTracker;
     }
 
     @Override
     public void onCreate(SQLiteDatabase db) {
         createUsersTable(db);
         createOrdersTable(db);
+        createOrderItemsTable(db);
+        createSalesRollupTables(db);
+        createOrderAdjustmentsTable(db);
     }
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_USERS);
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_ORDERS);
-        onCreate(db);
+        // Schemas older than version 4 predate the Orders table layout and are rebuilt from scratch
+        if (oldVersion < 4) {
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_USERS);
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_ORDERS);
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_ORDER_ITEMS);
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_DAILY_SALES);
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_HOURLY_SALES);
+            db.execSQL("DROP TABLE IF EXISTS " + LEGACY_TABLE_ORDER_DISCOUNTS);
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_ORDER_ADJUSTMENTS);
+            onCreate(db);
+            return;
+        }
+
+        // Each step migrates existing rows in place; onUpgrade already runs inside a transaction
+        if (oldVersion < 6) {
+            addOrderTimestampColumns(db);
+        }
+        if (oldVersion < 8) {
+            // Version 8 rebuilds Orders and OrderItems with centavo columns and recreates the
+            // rollups, which also covers the OrderItems table (5) and rollup tables (7) added before it
+            convertOrdersToCentavos(db);
+            if (oldVersion < 5) {
+                createOrderItemsTable(db);
+            } else {
+                convertOrderItemsToCentavos(db);
+            }
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_DAILY_SALES);
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_HOURLY_SALES);
+            createSalesRollupTables(db);
+            rebuildSalesRollups(db);
+        }
+        if (oldVersion < 9) {
+            createOrderAdjustmentsTable(db);
+        } else if (oldVersion < 11) {
+            convertOrderDiscountsToAdjustments(db);
+        }
+        if (oldVersion >= 8 && oldVersion < 10) {
+            // Older schemas already got these columns when version 8 rebuilt OrderItems
+            addOrderItemModifierColumns(db);
+        }
     }
 
     private void createUsersTable(SQLiteDatabase db) {
@@ -62,75 +187,464 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     }
 
     private void createOrdersTable(SQLiteDatabase db) {
-        String createOrdersTableQuery = "CREATE TABLE " + TABLE_ORDERS + "(" +
+        db.execSQL(createOrdersTableQuery(TABLE_ORDERS));
+        createOrderTimestampIndexes(db);
+    }
+
+    private static String createOrdersTableQuery(String table) {
+        return "CREATE TABLE " + table + "(" +
                 ORDER_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                ORDER_TOTAL_AMOUNT + " REAL, " +
+                ORDER_TOTAL_CENTAVOS + " INTEGER NOT NULL DEFAULT 0, " +
                 ORDER_TOTAL_ITEMS + " INTEGER, " +
-                ORDER_DATE + " TEXT)";
-        db.execSQL(createOrdersTableQuery);
+                ORDER_DATE + " TEXT, " +
+                ORDER_TIMESTAMP + " INTEGER NOT NULL DEFAULT 0, " +
+                ORDER_DAY + " INTEGER NOT NULL DEFAULT 0)";
+    }
+
+    private void createOrderTimestampIndexes(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX idx_orders_timestamp ON " + TABLE_ORDERS + "(" + ORDER_TIMESTAMP + ")");
+        db.execSQL("CREATE INDEX idx_orders_day ON " + TABLE_ORDERS + "(" + ORDER_DAY + ", " + ORDER_TOTAL_CENTAVOS + ")");
     }
 
-    public static long insertOrder(Context context, double totalAmount, int totalItems) {
-        SQLiteDatabase db = null;
-        long orderId = -1;
+    // Version 6: add integer timestamp/day columns and fill them from the existing order_date text;
+    // their indexes are created when version 8 rebuilds the table
+    private void addOrderTimestampColumns(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE " + TABLE_ORDERS + " ADD COLUMN " + ORDER_TIMESTAMP + " INTEGER NOT NULL DEFAULT 0");
+        db.execSQL("ALTER TABLE " + TABLE_ORDERS + " ADD COLUMN " + ORDER_DAY + " INTEGER NOT NULL DEFAULT 0");
+
+        SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT, Locale.getDefault());
+        SimpleDateFormat dayFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+        SQLiteStatement updateStatement = db.compileStatement("UPDATE " + TABLE_ORDERS +
+                " SET " + ORDER_TIMESTAMP + " = ?, " + ORDER_DAY + " = ? WHERE " + ORDER_ID + " = ?");
+        Cursor cursor = db.rawQuery("SELECT " + ORDER_ID + ", " + ORDER_DATE + " FROM " + TABLE_ORDERS, null);
 
         try {
-            DatabaseHelper dbHelper = new DatabaseHelper(context);
-            db = dbHelper.getWritableDatabase();
-            ContentValues values = new ContentValues();
-            values.put(ORDER_TOTAL_AMOUNT, totalAmount);
-            values.put(ORDER_TOTAL_ITEMS, totalItems);
-            values.put(ORDER_DATE, getCurrentDate());
-            orderId = db.insert(TABLE_ORDERS, null, values);
-
-            if (context instanceof OnOrderInsertedListener) {
-                ((OnOrderInsertedListener) context).onOrderInserted();
+            while (cursor.moveToNext()) {
+                long orderId = cursor.getLong(0);
+                String orderDate = cursor.getString(1);
+                long timestamp = parseOrderDate(orderDate, dateFormat, dayFormat);
+
+                updateStatement.clearBindings();
+                updateStatement.bindLong(1, timestamp);
+                updateStatement.bindLong(2, toEpochDay(timestamp));
+                updateStatement.bindLong(3, orderId);
+                updateStatement.executeUpdateDelete();
             }
+        } finally {
+            cursor.close();
+            updateStatement.close();
+        }
+    }
+
+    // Version 8: money moves from REAL pesos to INTEGER centavos. SQLite cannot change a column's type,
+    // so the rows are copied into a new table, the old table is dropped and the new one takes its name.
+    private void convertOrdersToCentavos(SQLiteDatabase db) {
+        String newTable = TABLE_ORDERS + "_new";
+        db.execSQL(createOrdersTableQuery(newTable));
+        db.execSQL("INSERT INTO " + newTable + "(" + ORDER_ID + ", " + ORDER_TOTAL_CENTAVOS + ", " + ORDER_TOTAL_ITEMS + ", " +
+                ORDER_DATE + ", " + ORDER_TIMESTAMP + ", " + ORDER_DAY + ")" +
+                " SELECT " + ORDER_ID + ", " + toCentavosSql("total_amount") + ", " + ORDER_TOTAL_ITEMS + ", " +
+                ORDER_DATE + ", " + ORDER_TIMESTAMP + ", " + ORDER_DAY + " FROM " + TABLE_ORDERS);
+        db.execSQL("DROP TABLE " + TABLE_ORDERS);
+        db.execSQL("ALTER TABLE " + newTable + " RENAME TO " + TABLE_ORDERS);
+        createOrderTimestampIndexes(db);
+    }
+
+    private void convertOrderItemsToCentavos(SQLiteDatabase db) {
+        String newTable = TABLE_ORDER_ITEMS + "_new";
+        db.execSQL(createOrderItemsTableQuery(newTable));
+        db.execSQL("INSERT INTO " + newTable + "(" + ORDER_ITEM_ID + ", " + ORDER_ITEM_ORDER_ID + ", " + ORDER_ITEM_NAME + ", " +
+                ORDER_ITEM_QUANTITY + ", " + ORDER_ITEM_UNIT_PRICE_CENTAVOS + ", " + ORDER_ITEM_LINE_TOTAL_CENTAVOS + ")" +
+                " SELECT " + ORDER_ITEM_ID + ", " + ORDER_ITEM_ORDER_ID + ", " + ORDER_ITEM_NAME + ", " +
+                ORDER_ITEM_QUANTITY + ", " + toCentavosSql("unit_price") + ", " + toCentavosSql("line_total") +
+                " FROM " + TABLE_ORDER_ITEMS);
+        db.execSQL("DROP TABLE " + TABLE_ORDER_ITEMS);
+        db.execSQL("ALTER TABLE " + newTable + " RENAME TO " + TABLE_ORDER_ITEMS);
+        createOrderItemsIndexes(db);
+    }
+
+    private static String toCentavosSql(String pesosColumn) {
+        return "CAST(ROUND(IFNULL(" + pesosColumn + ", 0) * 100) AS INTEGER)";
+    }
+
+    // Parse a legacy order_date string, falling back to the date part if the time suffix is unreadable
+    private static long parseOrderDate(String orderDate, SimpleDateFormat dateFormat, SimpleDateFormat dayFormat) {
+        if (orderDate == null) {
+            return 0;
+        }
+        try {
+            return dateFormat.parse(orderDate).getTime();
+        } catch (ParseException e) {
+            try {
+                return dayFormat.parse(orderDate).getTime();
+            } catch (ParseException ignored) {
+                Log.e("DatabaseHelper", "Unreadable order date: " + orderDate);
+                return 0;
+            }
+        }
+    }
+
+    // Convert epoch millis to a local-time epoch day so "today" matches the register's clock
+    public static long toEpochDay(long timestampMillis) {
+        long offset = TimeZone.getDefault().getOffset(timestampMillis);
+        return Math.floorDiv(timestampMillis + offset, TimeUnit.DAYS.toMillis(1));
+    }
+
+    // Convert epoch millis to a local-time epoch hour
+    public static long toEpochHour(long timestampMillis) {
+        long offset = TimeZone.getDefault().getOffset(timestampMillis);
+        return Math.floorDiv(timestampMillis + offset, TimeUnit.HOURS.toMillis(1));
+    }
 
-            if (dbHelper.orderInsertedListener != null) {
-                dbHelper.orderInsertedListener.onOrderInserted();
+    private void createSalesRollupTables(SQLiteDatabase db) {
+        db.execSQL(createSalesRollupTableQuery(TABLE_DAILY_SALES, DAILY_SALES_DAY));
+        db.execSQL(createSalesRollupTableQuery(TABLE_HOURLY_SALES, HOURLY_SALES_HOUR));
+    }
+
+    private static String createSalesRollupTableQuery(String table, String keyColumn) {
+        return "CREATE TABLE " + table + "(" +
+                keyColumn + " INTEGER PRIMARY KEY, " +
+                ROLLUP_TOTAL_CENTAVOS + " INTEGER NOT NULL DEFAULT 0, " +
+                ROLLUP_ORDER_COUNT + " INTEGER NOT NULL DEFAULT 0, " +
+                ROLLUP_ITEM_COUNT + " INTEGER NOT NULL DEFAULT 0)";
+    }
+
+    // Precompiled statements that add one order to a rollup table; compiled once per checkout batch
+    private static class SalesRollupStatements {
+        private final SQLiteStatement seedStatement;
+        private final SQLiteStatement updateStatement;
+
+        SalesRollupStatements(SQLiteDatabase db, String table, String keyColumn) {
+            // SQLite on API 28 predates UPSERT, so seed the bucket and then increment it
+            seedStatement = db.compileStatement("INSERT OR IGNORE INTO " + table + "(" + keyColumn + ") VALUES (?)");
+            try {
+                updateStatement = db.compileStatement("UPDATE " + table + " SET " +
+                        ROLLUP_TOTAL_CENTAVOS + " = " + ROLLUP_TOTAL_CENTAVOS + " + ?, " +
+                        ROLLUP_ORDER_COUNT + " = " + ROLLUP_ORDER_COUNT + " + 1, " +
+                        ROLLUP_ITEM_COUNT + " = " + ROLLUP_ITEM_COUNT + " + ?" +
+                        " WHERE " + keyColumn + " = ?");
+            } catch (SQLiteException e) {
+                seedStatement.close();
+                throw e;
             }
+        }
+
+        // Called inside the checkout transaction
+        void add(long key, long totalCentavos, int totalItems) {
+            seedStatement.bindLong(1, key);
+            seedStatement.executeInsert();
+            updateStatement.bindLong(1, totalCentavos);
+            updateStatement.bindLong(2, totalItems);
+            updateStatement.bindLong(3, key);
+            updateStatement.executeUpdateDelete();
+        }
+
+        void close() {
+            seedStatement.close();
+            updateStatement.close();
+        }
+    }
 
+    // Recompute the daily and hourly rollups from the raw Orders table
+    public void rebuildSalesRollups() {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            rebuildSalesRollups(db);
+            db.setTransactionSuccessful();
         } catch (SQLiteException e) {
-            Log.e("DatabaseHelper", "Error inserting order: " + e.getMessage());
+            Log.e("DatabaseHelper", "Error rebuilding sales rollups: " + e.getMessage());
         } finally {
-            closeDatabase(db);
+            db.endTransaction();
         }
+        invalidationTracker.notifyChanged(TABLE_DAILY_SALES);
+        invalidationTracker.notifyChanged(TABLE_HOURLY_SALES);
+    }
 
-        return orderId;
+    // One pass over Orders in timestamp order, flushing each bucket once its run of orders ends
+    private static void rebuildSalesRollups(SQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + TABLE_DAILY_SALES);
+        db.execSQL("DELETE FROM " + TABLE_HOURLY_SALES);
+
+        SalesBucket dayBucket = new SalesBucket(TABLE_DAILY_SALES, DAILY_SALES_DAY);
+        SalesBucket hourBucket = new SalesBucket(TABLE_HOURLY_SALES, HOURLY_SALES_HOUR);
+        Cursor cursor = db.rawQuery("SELECT " + ORDER_TIMESTAMP + ", " + ORDER_TOTAL_CENTAVOS + ", " + ORDER_TOTAL_ITEMS +
+                " FROM " + TABLE_ORDERS + " ORDER BY " + ORDER_TIMESTAMP, null);
+
+        try {
+            while (cursor.moveToNext()) {
+                long timestamp = cursor.getLong(0);
+                long totalCentavos = cursor.getLong(1);
+                int totalItems = cursor.getInt(2);
+
+                dayBucket.add(db, toEpochDay(timestamp), totalCentavos, totalItems);
+                hourBucket.add(db, toEpochHour(timestamp), totalCentavos, totalItems);
+            }
+            dayBucket.flush(db);
+            hourBucket.flush(db);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    // Running totals for the rollup bucket currently being rebuilt
+    private static class SalesBucket {
+        private final String table;
+        private final String keyColumn;
+        private long key = Long.MIN_VALUE;
+        private long totalCentavos;
+        private int orderCount;
+        private int itemCount;
+
+        SalesBucket(String table, String keyColumn) {
+            this.table = table;
+            this.keyColumn = keyColumn;
+        }
+
+        void add(SQLiteDatabase db, long orderKey, long orderCentavos, int orderItems) {
+            if (orderKey != key) {
+                flush(db);
+                key = orderKey;
+            }
+            totalCentavos += orderCentavos;
+            orderCount++;
+            itemCount += orderItems;
+        }
+
+        void flush(SQLiteDatabase db) {
+            if (orderCount == 0) {
+                return;
+            }
+            db.execSQL("INSERT INTO " + table + "(" + keyColumn + ", " + ROLLUP_TOTAL_CENTAVOS + ", " +
+                    ROLLUP_ORDER_COUNT + ", " + ROLLUP_ITEM_COUNT + ") VALUES (?, ?, ?, ?)",
+                    new Object[]{key, totalCentavos, orderCount, itemCount});
+            totalCentavos = 0;
+            orderCount = 0;
+            itemCount = 0;
+        }
+    }
+
+    private void createOrderItemsTable(SQLiteDatabase db) {
+        db.execSQL(createOrderItemsTableQuery(TABLE_ORDER_ITEMS));
+        createOrderItemsIndexes(db);
+    }
+
+    private static String createOrderItemsTableQuery(String table) {
+        return "CREATE TABLE " + table + "(" +
+                ORDER_ITEM_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                ORDER_ITEM_ORDER_ID + " INTEGER NOT NULL REFERENCES " + TABLE_ORDERS + "(" + ORDER_ID + "), " +
+                ORDER_ITEM_NAME + " TEXT, " +
+                ORDER_ITEM_QUANTITY + " INTEGER, " +
+                ORDER_ITEM_UNIT_PRICE_CENTAVOS + " INTEGER NOT NULL DEFAULT 0, " +
+                ORDER_ITEM_LINE_TOTAL_CENTAVOS + " INTEGER NOT NULL DEFAULT 0, " +
+                ORDER_ITEM_PRODUCT_ID + " INTEGER NOT NULL DEFAULT 0, " +
+                ORDER_ITEM_MODIFIERS + " INTEGER NOT NULL DEFAULT 0)";
+    }
+
+    // Version 10: order lines keep their product id and modifier bits
+    private void addOrderItemModifierColumns(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE " + TABLE_ORDER_ITEMS + " ADD COLUMN " + ORDER_ITEM_PRODUCT_ID + " INTEGER NOT NULL DEFAULT 0");
+        db.execSQL("ALTER TABLE " + TABLE_ORDER_ITEMS + " ADD COLUMN " + ORDER_ITEM_MODIFIERS + " INTEGER NOT NULL DEFAULT 0");
+    }
+
+    private void createOrderItemsIndexes(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX idx_order_items_order_id ON " + TABLE_ORDER_ITEMS + "(" + ORDER_ITEM_ORDER_ID + ")");
+    }
+
+    private void createOrderAdjustmentsTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_ORDER_ADJUSTMENTS + "(" +
+                ORDER_ADJUSTMENT_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                ORDER_ADJUSTMENT_ORDER_ID + " INTEGER NOT NULL REFERENCES " + TABLE_ORDERS + "(" + ORDER_ID + "), " +
+                ORDER_ADJUSTMENT_RULE_ID + " TEXT NOT NULL, " +
+                ORDER_ADJUSTMENT_DESCRIPTION + " TEXT, " +
+                ORDER_ADJUSTMENT_KIND + " TEXT NOT NULL, " +
+                ORDER_ADJUSTMENT_AMOUNT_CENTAVOS + " INTEGER NOT NULL DEFAULT 0)");
+        db.execSQL("CREATE INDEX idx_order_adjustments_order_id ON " + TABLE_ORDER_ADJUSTMENTS + "(" + ORDER_ADJUSTMENT_ORDER_ID + ")");
+    }
+
+    // Version 11: OrderDiscounts becomes OrderAdjustments, with each row's kind taken from the sign of its amount
+    private void convertOrderDiscountsToAdjustments(SQLiteDatabase db) {
+        createOrderAdjustmentsTable(db);
+        db.execSQL("INSERT INTO " + TABLE_ORDER_ADJUSTMENTS + "(" +
+                ORDER_ADJUSTMENT_ORDER_ID + ", " + ORDER_ADJUSTMENT_RULE_ID + ", " + ORDER_ADJUSTMENT_DESCRIPTION + ", " +
+                ORDER_ADJUSTMENT_KIND + ", " + ORDER_ADJUSTMENT_AMOUNT_CENTAVOS + ") " +
+                "SELECT order_id, rule_id, description, " +
+                "CASE WHEN amount_centavos < 0 THEN '" + ADJUSTMENT_KIND_DISCOUNT + "' ELSE '" + ADJUSTMENT_KIND_UPCHARGE + "' END, " +
+                "amount_centavos FROM " + LEGACY_TABLE_ORDER_DISCOUNTS + " ORDER BY order_discount_id");
+        db.execSQL("DROP TABLE " + LEGACY_TABLE_ORDER_DISCOUNTS);
     }
 
-    private static String getCurrentDate() {
+    // Insert a batch of orders in one transaction; returns the order id for each order, or -1 if it failed
+    public long[] insertOrders(List<Class_CheckoutOrder> orders) {
+        long[] orderIds = new long[orders.size()];
+        Arrays.fill(orderIds, -1);
+
+        // One formatter for the whole batch, retries included; SimpleDateFormat is costly to build per order
         SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT, Locale.getDefault());
-        return dateFormat.format(new Date());
+        try {
+            SQLiteDatabase db = getWritableDatabase();
+            try {
+                long[] batchIds = writeOrders(db, orders, dateFormat);
+                System.arraycopy(batchIds, 0, orderIds, 0, batchIds.length);
+            } catch (SQLiteException e) {
+                if (orders.size() == 1) {
+                    throw e;
+                }
+                // One bad order should not fail the whole batch, so retry each on its own
+                Log.e("DatabaseHelper", "Error inserting order batch, retrying individually: " + e.getMessage());
+                for (int i = 0; i < orders.size(); i++) {
+                    try {
+                        orderIds[i] = writeOrders(db, orders.subList(i, i + 1), dateFormat)[0];
+                    } catch (SQLiteException orderError) {
+                        Log.e("DatabaseHelper", "Error inserting order: " + orderError.getMessage());
+                    }
+                }
+            }
+
+            notifyOrdersChanged(orders, orderIds);
+
+        } catch (SQLiteException e) {
+            Log.e("DatabaseHelper", "Error inserting order: " + e.getMessage());
+        }
+
+        return orderIds;
+    }
+
+    // Write headers, line items and rollups with precompiled statements, committing once for the whole batch
+    private static long[] writeOrders(SQLiteDatabase db, List<Class_CheckoutOrder> orders, SimpleDateFormat dateFormat) {
+        SQLiteStatement orderStatement = null;
+        SQLiteStatement itemStatement = null;
+        SQLiteStatement adjustmentStatement = null;
+        SalesRollupStatements dailyRollup = null;
+        SalesRollupStatements hourlyRollup = null;
+        long[] orderIds = new long[orders.size()];
+
+        db.beginTransaction();
+        try {
+            orderStatement = db.compileStatement("INSERT INTO " + TABLE_ORDERS + "(" +
+                    ORDER_TOTAL_CENTAVOS + ", " + ORDER_TOTAL_ITEMS + ", " + ORDER_DATE + ", " +
+                    ORDER_TIMESTAMP + ", " + ORDER_DAY + ") VALUES (?, ?, ?, ?, ?)");
+            itemStatement = db.compileStatement("INSERT INTO " + TABLE_ORDER_ITEMS + "(" +
+                    ORDER_ITEM_ORDER_ID + ", " + ORDER_ITEM_NAME + ", " + ORDER_ITEM_QUANTITY + ", " +
+                    ORDER_ITEM_UNIT_PRICE_CENTAVOS + ", " + ORDER_ITEM_LINE_TOTAL_CENTAVOS + ", " +
+                    ORDER_ITEM_PRODUCT_ID + ", " + ORDER_ITEM_MODIFIERS + ") VALUES (?, ?, ?, ?, ?, ?, ?)");
+            adjustmentStatement = db.compileStatement("INSERT INTO " + TABLE_ORDER_ADJUSTMENTS + "(" +
+                    ORDER_ADJUSTMENT_ORDER_ID + ", " + ORDER_ADJUSTMENT_RULE_ID + ", " + ORDER_ADJUSTMENT_DESCRIPTION + ", " +
+                    ORDER_ADJUSTMENT_KIND + ", " + ORDER_ADJUSTMENT_AMOUNT_CENTAVOS + ") VALUES (?, ?, ?, ?, ?)");
+            dailyRollup = new SalesRollupStatements(db, TABLE_DAILY_SALES, DAILY_SALES_DAY);
+            hourlyRollup = new SalesRollupStatements(db, TABLE_HOURLY_SALES, HOURLY_SALES_HOUR);
+
+            for (int i = 0; i < orders.size(); i++) {
+                orderIds[i] = writeOrder(orderStatement, itemStatement, adjustmentStatement, dailyRollup, hourlyRollup,
+                        dateFormat, orders.get(i));
+            }
+
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            if (orderStatement != null) {
+                orderStatement.close();
+            }
+            if (itemStatement != null) {
+                itemStatement.close();
+            }
+            if (adjustmentStatement != null) {
+                adjustmentStatement.close();
+            }
+            if (dailyRollup != null) {
+                dailyRollup.close();
+            }
+            if (hourlyRollup != null) {
+                hourlyRollup.close();
+            }
+        }
+
+        return orderIds;
+    }
+
+    private static long writeOrder(SQLiteStatement orderStatement, SQLiteStatement itemStatement,
+                                   SQLiteStatement adjustmentStatement, SalesRollupStatements dailyRollup,
+                                   SalesRollupStatements hourlyRollup, SimpleDateFormat dateFormat,
+                                   Class_CheckoutOrder order) {
+        long timestamp = order.getTimestamp();
+        orderStatement.clearBindings();
+        orderStatement.bindLong(1, order.getTotalAmount().getCentavos());
+        orderStatement.bindLong(2, order.getTotalItems());
+        orderStatement.bindString(3, dateFormat.format(new Date(timestamp)));
+        orderStatement.bindLong(4, timestamp);
+        orderStatement.bindLong(5, toEpochDay(timestamp));
+        long orderId = orderStatement.executeInsert();
+
+        if (orderId == -1) {
+            throw new SQLiteException("Order header insert failed");
+        }
+
+        // Add the order to its day and hour buckets
+        dailyRollup.add(toEpochDay(timestamp), order.getTotalAmount().getCentavos(), order.getTotalItems());
+        hourlyRollup.add(toEpochHour(timestamp), order.getTotalAmount().getCentavos(), order.getTotalItems());
+
+        for (Class_CartItem cartItem : order.getCartItems()) {
+            itemStatement.clearBindings();
+            itemStatement.bindLong(1, orderId);
+            itemStatement.bindString(2, cartItem.getItemName());
+            itemStatement.bindLong(3, cartItem.getQuantity());
+            itemStatement.bindLong(4, cartItem.getOriginalPrice().getCentavos());
+            itemStatement.bindLong(5, cartItem.getTotalPrice().getCentavos());
+            itemStatement.bindLong(6, cartItem.getProductId());
+            itemStatement.bindLong(7, cartItem.getModifiers());
+            itemStatement.executeInsert();
+        }
+
+        for (Class_PriceAdjustment adjustment : order.getAdjustments()) {
+            adjustmentStatement.clearBindings();
+            adjustmentStatement.bindLong(1, orderId);
+            adjustmentStatement.bindString(2, adjustment.getRuleId());
+            adjustmentStatement.bindString(3, adjustment.getDescription());
+            adjustmentStatement.bindString(4, adjustment.isDiscount() ? ADJUSTMENT_KIND_DISCOUNT : ADJUSTMENT_KIND_UPCHARGE);
+            adjustmentStatement.bindLong(5, adjustment.getAmount().getCentavos());
+            adjustmentStatement.executeInsert();
+        }
+
+        return orderId;
     }
 
-    public interface OnOrderInsertedListener {
-        void onOrderInserted();
+    // Publish the epoch days touched by the orders that were written
+    private void notifyOrdersChanged(List<Class_CheckoutOrder> orders, long[] orderIds) {
+        long fromDay = Long.MAX_VALUE;
+        long toDay = Long.MIN_VALUE;
+        for (int i = 0; i < orders.size(); i++) {
+            if (orderIds[i] != -1) {
+                long day = toEpochDay(orders.get(i).getTimestamp());
+                fromDay = Math.min(fromDay, day);
+                toDay = Math.max(toDay, day);
+            }
+        }
+        if (fromDay > toDay) {
+            return;
+        }
+        invalidationTracker.notifyChanged(TABLE_ORDERS, fromDay, toDay);
+        invalidationTracker.notifyChanged(TABLE_DAILY_SALES, fromDay, toDay);
+        invalidationTracker.notifyChanged(TABLE_HOURLY_SALES, fromDay, toDay);
     }
 
     // Get the latest order from the database
 
     public List<Order> getTodaySalesData() {
         List<Order> todayOrders = new ArrayList<>();
-        SQLiteDatabase db = null;
 
         try {
-            db = getReadableDatabase();
+            SQLiteDatabase db = getReadableDatabase();
 
-            // Fetch data for the current day
-            String query = "SELECT " + ORDER_DATE + ", SUM(" + ORDER_TOTAL_AMOUNT + ") AS total_amount " +
-                    "FROM " + TABLE_ORDERS +
-                    " WHERE DATE(" + ORDER_DATE + ") = DATE('now')" +
-                    " GROUP BY " + ORDER_DATE;
-            Cursor cursor = db.rawQuery(query, null);
+            // Fetch data for the current day with an index lookup on the epoch-day column
+            String today = String.valueOf(toEpochDay(System.currentTimeMillis()));
+            Cursor cursor = db.rawQuery(QUERY_TODAY_SALES, new String[]{today});
 
             while (cursor.moveToNext()) {
-                int totalAmountIndex = cursor.getColumnIndex("total_amount");
+                int totalAmountIndex = cursor.getColumnIndex("total_centavos");
                 int orderDateIndex = cursor.getColumnIndex(ORDER_DATE);
 
                 if (totalAmountIndex != -1 && orderDateIndex != -1) {
-                    double totalAmount = cursor.getDouble(totalAmountIndex);
+                    Class_Money totalAmount = Class_Money.ofCentavos(cursor.getLong(totalAmountIndex));
                     String orderDate = cursor.getString(orderDateIndex);
 
                     Order order = new Order(0, totalAmount, 0, orderDate);
@@ -141,64 +655,53 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             cursor.close();
         } catch (Exception e) {
             Log.e("DatabaseHelper", "Error getting today's sales data: " + e.getMessage());
-        } finally {
-            closeDatabase(db);
         }
 
         return todayOrders;
     }
 
-    public List<Order> getUpdatedData() {
-        List<Order> updatedData = new ArrayList<>();
-        SQLiteDatabase db = null;
+    // Sales in pesos per day for dayCount days starting at fromDay, read from the daily rollup
+    public double[] getDailySalesTotals(long fromDay, int dayCount) {
+        return getSalesTotals(QUERY_DAILY_SALES, fromDay, dayCount);
+    }
 
-        try {
-            db = getReadableDatabase();
+    // Sales in pesos per hour for hourCount hours starting at fromHour, read from the hourly rollup
+    public double[] getHourlySalesTotals(long fromHour, int hourCount) {
+        return getSalesTotals(QUERY_HOURLY_SALES, fromHour, hourCount);
+    }
 
-            // Fetch updated data for each day
-            String query = "SELECT " + ORDER_DATE + ", SUM(" + ORDER_TOTAL_AMOUNT + ") AS total_amount " +
-                    "FROM " + TABLE_ORDERS +
-                    " GROUP BY " + ORDER_DATE;
-            Cursor cursor = db.rawQuery(query, null);
+    private double[] getSalesTotals(String query, long fromKey, int count) {
+        double[] totals = new double[count];
 
-            while (cursor.moveToNext()) {
-                int totalAmountIndex = cursor.getColumnIndex("total_amount");
-                int orderDateIndex = cursor.getColumnIndex(ORDER_DATE);
+        try {
+            SQLiteDatabase db = getReadableDatabase();
 
-                if (totalAmountIndex != -1 && orderDateIndex != -1) {
-                    double totalAmount = cursor.getDouble(totalAmountIndex);
-                    String orderDate = cursor.getString(orderDateIndex);
+            Cursor cursor = db.rawQuery(query, new String[]{String.valueOf(fromKey), String.valueOf(fromKey + count - 1)});
 
-                    Order order = new Order(0, totalAmount, 0, orderDate);
-                    updatedData.add(order);
-                }
+            while (cursor.moveToNext()) {
+                int offset = (int) (cursor.getLong(0) - fromKey);
+                totals[offset] = Class_Money.ofCentavos(cursor.getLong(1)).toDecimalPesos();
             }
 
             cursor.close();
         } catch (Exception e) {
-            Log.e("DatabaseHelper", "Error getting updated data: " + e.getMessage());
-        } finally {
-            closeDatabase(db);
+            Log.e("DatabaseHelper", "Error getting sales totals: " + e.getMessage());
         }
 
-        return updatedData;
+        return totals;
     }
 
     // Insert user data into the Users table
 
     public void insertData(String email, String password) {
-        SQLiteDatabase db = null;
-
         try {
-            db = getWritableDatabase();
+            SQLiteDatabase db = getWritableDatabase();
             ContentValues contentValues = new ContentValues();
             contentValues.put(USER_EMAIL, email);
             contentValues.put(USER_PASSWORD, password);
             db.insertOrThrow(TABLE_USERS, null, contentValues);
         } catch (Exception e) {
             Log.e("DatabaseHelper", "Error inserting user data: " + e.getMessage());
-        } finally {
-            closeDatabase(db);
         }
     }
 
@@ -220,47 +723,63 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         return result;
     }
 
-    // Close the database if open
-    private static void closeDatabase(SQLiteDatabase db) {
-        if (db != null && db.isOpen()) {
-            db.close();
+    // Fetch orders written after afterOrderId, newest first, so a list can prepend only what is new
+    public List<Order> getOrdersNewerThan(long afterOrderId) {
+        List<Order> orderList = new ArrayList<>();
+
+        try {
+            SQLiteDatabase db = getReadableDatabase();
+            Cursor cursor = db.rawQuery(QUERY_ORDERS_NEWER_THAN, new String[]{String.valueOf(afterOrderId)});
+
+            while (cursor.moveToNext()) {
+                orderList.add(new Order(cursor.getInt(0), Class_Money.ofCentavos(cursor.getLong(1)), cursor.getInt(2), cursor.getString(3)));
+            }
+
+            cursor.close();
+        } catch (Exception e) {
+            Log.e("DatabaseHelper", "Error getting new orders: " + e.getMessage());
         }
+
+        return orderList;
     }
 
-    public List<Order> getAllConfirmedOrders() {
-        SQLiteDatabase db = null;
-        List<Order> orderList = new ArrayList<>();
+    // Fetch one page of orders, newest first, seeking past the last order id already shown
+    public List<Order> getConfirmedOrdersPage(long beforeOrderId, int limit) {
+        List<Order> orderList = new ArrayList<>(limit);
 
         try {
-            db = getReadableDatabase();
-            String query = "SELECT * FROM " + TABLE_ORDERS + " ORDER BY " + ORDER_ID + " DESC";
-            Cursor cursor = db.rawQuery(query, null);
+            SQLiteDatabase db = getReadableDatabase();
+            Cursor cursor = db.rawQuery(QUERY_ORDERS_PAGE, new String[]{String.valueOf(beforeOrderId), String.valueOf(limit)});
 
             while (cursor.moveToNext()) {
-                int orderIdIndex = cursor.getColumnIndex(ORDER_ID);
-                int totalAmountIndex = cursor.getColumnIndex(ORDER_TOTAL_AMOUNT);
-                int totalItemsIndex = cursor.getColumnIndex(ORDER_TOTAL_ITEMS);
-                int orderDateIndex = cursor.getColumnIndex(ORDER_DATE);
-
-                if (orderIdIndex != -1 && totalAmountIndex != -1 && totalItemsIndex != -1 && orderDateIndex != -1) {
-                    int orderId = cursor.getInt(orderIdIndex);
-                    double totalAmount = cursor.getDouble(totalAmountIndex);
-                    int totalItems = cursor.getInt(totalItemsIndex);
-                    String orderDate = cursor.getString(orderDateIndex);
+                int orderId = cursor.getInt(0);
+                Class_Money totalAmount = Class_Money.ofCentavos(cursor.getLong(1));
+                int totalItems = cursor.getInt(2);
+                String orderDate = cursor.getString(3);
 
-                    Order order = new Order(orderId, totalAmount, totalItems, orderDate);
-                    orderList.add(order);
-                }
+                orderList.add(new Order(orderId, totalAmount, totalItems, orderDate));
             }
 
             cursor.close();
         } catch (Exception e) {
-            Log.e("DatabaseHelper", "Error getting confirmed orders: " + e.getMessage());
-        } finally {
-            closeDatabase(db);
+            Log.e("DatabaseHelper", "Error getting confirmed orders page: " + e.getMessage());
         }
 
         return orderList;
     }
 
-}
\ No newline at end of file
+    // Open a cursor over the orders placed in [fromMillis, toMillis), oldest first; the caller must close it
+    public Cursor queryOrdersForExport(long fromMillis, long toMillis) {
+        return getReadableDatabase().rawQuery(QUERY_ORDERS_FOR_EXPORT,
+                new String[]{String.valueOf(fromMillis), String.valueOf(toMillis)});
+    }
+
+    // Count the orders placed in [fromMillis, toMillis) with an index range count
+    public long countOrders(long fromMillis, long toMillis) {
+        return DatabaseUtils.longForQuery(getReadableDatabase(),
+                "SELECT COUNT(*) FROM " + TABLE_ORDERS +
+                        " WHERE " + ORDER_TIMESTAMP + " >= ? AND " + ORDER_TIMESTAMP + " < ?",
+                new String[]{String.valueOf(fromMillis), String.valueOf(toMillis)});
+    }
+
+}
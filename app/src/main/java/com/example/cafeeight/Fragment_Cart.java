@@ -1,8 +1,6 @@
 package com.example.cafeeight;
 
-import android.content.DialogInterface;
 import android.os.Bundle;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -14,9 +12,14 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.LiveData;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.google.android.material.snackbar.Snackbar;
+
 import java.util.List;
 
 public class Fragment_Cart extends Fragment {
@@ -25,186 +28,225 @@ public class Fragment_Cart extends Fragment {
     private RecyclerView recyclerView;
     private CartAdapter cartAdapter;
     private ImageView itemImage;
-    private TextView itemsTotalTxt, totalPriceTxt, checkoutBtn, clearItems;
-
-    // Declare the databaseHelper at the class level
-    public static DatabaseHelper databaseHelper;
+    private TextView itemsTotalTxt, discountTxt, totalPriceTxt, checkoutBtn, clearItems, cartTabTxt;
+    private final Class_MoneyFormatter totalAmountFormatter = new Class_MoneyFormatter("Total Amount: ");
+    // Offers to undo the last removal; dismissed as soon as the cart changes in any other way
+    private Snackbar undoSnackbar;
+    private long undoVersion;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
         // Inflate the layout for this fragment
         View view = inflater.inflate(R.layout.fragment_cartmanager, container, false);
-        List<Class_CartItem> fragmentCartItems = Fragment_Clickedorder.CartManager.getInstance().getCartItems();
 
         // Initialize UI components
         recyclerView = view.findViewById(R.id.recyclerView);
         itemsTotalTxt = view.findViewById(R.id.ItemTotal);
+        discountTxt = view.findViewById(R.id.discountTxt);
         totalPriceTxt = view.findViewById(R.id.totalPrice);
         checkoutBtn = view.findViewById(R.id.CheckOutBtn);
         clearItems = view.findViewById(R.id.clearCartBtn);
+        cartTabTxt = view.findViewById(R.id.cartTabTxt);
 
         // Set up the RecyclerView
         LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
         recyclerView.setLayoutManager(layoutManager);
 
         // Initialize and set the CartAdapter
-        cartAdapter = new CartAdapter(fragmentCartItems, new CartAdapter.OnItemClickListener() {
+        cartAdapter = new CartAdapter(new CartAdapter.OnItemClickListener() {
             @Override
-            public void onMinusButtonClick(int position) {
-                updateItemQuantity(position, -1);
+            public void onMinusButtonClick(Class_CartItem cartItem) {
+                updateItemQuantity(cartItem, -1);
             }
 
             @Override
-            public void onPlusButtonClick(int position) {
-                updateItemQuantity(position, 1);
+            public void onPlusButtonClick(Class_CartItem cartItem) {
+                updateItemQuantity(cartItem, 1);
             }
 
             @Override
-            public void onTrashButtonClick(final int position) {
-                // Create a confirmation dialog
-                AlertDialog.Builder builder = new AlertDialog.Builder(requireContext());
-                builder.setTitle("Remove Item");
-                builder.setMessage("Are you sure you want to remove this item from the cart?");
-
-                // Add buttons to the dialog
-                builder.setPositiveButton("Confirm", new DialogInterface.OnClickListener() {
-                    @Override
-                    public void onClick(DialogInterface dialog, int which) {
-                        // Remove the item from the cart
-                        if (position >= 0 && position < cartAdapter.fragmentCartItems.size()) {
-                            cartAdapter.fragmentCartItems.remove(position);
-                            cartAdapter.notifyItemRemoved(position);
-                            updateTotalAmount();
-                        }
-                        dialog.dismiss(); // Dismiss the dialog after removing the item
-                    }
-                });
-
-                builder.setNegativeButton("Cancel", new DialogInterface.OnClickListener() {
-                    @Override
-                    public void onClick(DialogInterface dialog, int which) {
-                        dialog.dismiss(); // Dismiss the dialog if the user clicks "No"
-                    }
-                });
-
-                // Show the dialog
-                AlertDialog alertDialog = builder.create();
-                alertDialog.show();
+            public void onTrashButtonClick(Class_CartItem cartItem) {
+                // Remove at once; the snackbar's Undo puts the line back
+                if (!Class_CartManager.getInstance().removeFromCart(cartItem.getLineKey())) {
+                    refreshCart();
+                    showCartLocked();
+                    return;
+                }
+                refreshCart();
+                showUndo("Removed " + cartItem.getItemName());
             }
 
         });
 
         recyclerView.setAdapter(cartAdapter);
 
-        // Initialize the database helper only if it is not already initialized
-        if (databaseHelper == null) {
-            databaseHelper = new DatabaseHelper(requireContext());
-        }
+        // Show the current cart and its totals
+        refreshCart();
+
+        // Checkout reads the cart when tapped, so the listener is set only once
+        checkoutBtn.setOnClickListener(v -> {
+            // Charge the promotions in effect now, not when the cart was last changed
+            Class_CartManager.getInstance().repriceTimeDependentRules();
+            performCheckout(Class_CartManager.getInstance().getSnapshot());
+        });
 
-        // Update the total amount display
-        updateTotalAmount();
+        // Park the current customer's cart and start a new one, or switch between open carts
+        view.findViewById(R.id.newCartBtn).setOnClickListener(v -> {
+            Class_CartManager.getInstance().newCart();
+            refreshCart();
+        });
+        view.findViewById(R.id.switchCartBtn).setOnClickListener(v -> showOpenCarts());
 
         clearItems.setOnClickListener(v -> {
-            confirmClearCart(); // Show a confirmation dialog before clearing the cart
+            clearCartWithUndo(); // Clear at once and offer an undo instead of asking first
         });
 
         return view;
     }
 
-    // Update the total amount display
-    private void updateTotalAmount() {
-        double totalAmount = calculateTotalAmount();
-        int totalItems = calculateTotalQuantity();
+    @Override
+    public void onResume() {
+        super.onResume();
+        // A happy hour may have started or ended while the cart was out of view
+        Class_CartManager.getInstance().repriceTimeDependentRules();
+        refreshCart();
+    }
 
-        // Update the total items display
-        itemsTotalTxt.setText("Total Items: " + totalItems);
+    // Submit the latest cart snapshot; the list is diffed in the background and only changed rows are rebound
+    private void refreshCart() {
+        Class_CartManager.Snapshot cart = Class_CartManager.getInstance().getSnapshot();
+        cartAdapter.submitList(cart.getItems());
+        updateTotalAmount(cart);
+        // A cart whose order is still being written cannot be checked out again
+        checkoutBtn.setEnabled(!Class_CartManager.getInstance().isCheckingOut(cart.getCartNumber()));
+
+        // Undo reverts the latest cart operation, so it is only offered while that is still the removal
+        if (undoSnackbar != null && cart.getVersion() != undoVersion) {
+            undoSnackbar.dismiss();
+            undoSnackbar = null;
+        }
+    }
 
-        // Update the total price display
-        double totalPrice = totalAmount;
-        totalPriceTxt.setText("Total Amount: ₱" + String.format("%.0f", totalPrice));
+    // Show an undo action for the operation just applied to the cart
+    private void showUndo(String message) {
+        undoVersion = Class_CartManager.getInstance().getSnapshot().getVersion();
+        undoSnackbar = Snackbar.make(requireView(), message, Snackbar.LENGTH_LONG)
+                .setAction("Undo", v -> {
+                    undoSnackbar = null;
+                    Class_CartManager.getInstance().undo();
+                    refreshCart();
+                });
+        undoSnackbar.show();
+    }
 
-        // Set up a click listener for the checkout button
-        checkoutBtn.setOnClickListener(v -> performCheckout(totalPrice, totalItems));
+    // Update the total amount display
+    private void updateTotalAmount(Class_CartManager.Snapshot cart) {
+        cartTabTxt.setText("Tab " + cart.getCartNumber());
 
-        // Check if the CartAdapter is not null and update its dataset
-        if (cartAdapter != null) {
-            List<Class_CartItem> updatedFragmentCartItems = Fragment_Clickedorder.CartManager.getInstance().getCartItems();
-            Log.d("Fragment_Cart", "Updated Cart Items: " + updatedFragmentCartItems.size());
-            cartAdapter.updateDataset(updatedFragmentCartItems);
+        // Update the total items display
+        itemsTotalTxt.setText("Total Items: " + cart.getTotalQuantity());
+
+        // Show the promotions and upcharges applied, one per line
+        List<Class_PriceAdjustment> adjustments = cart.getAdjustments();
+        if (adjustments.isEmpty()) {
+            discountTxt.setVisibility(View.GONE);
+        } else {
+            StringBuilder adjustmentLines = new StringBuilder();
+            for (Class_PriceAdjustment adjustment : adjustments) {
+                if (adjustmentLines.length() > 0) {
+                    adjustmentLines.append('\n');
+                }
+                adjustmentLines.append(adjustment.getDescription()).append(": ").append(adjustment.getAmount());
+            }
+            discountTxt.setText(adjustmentLines);
+            discountTxt.setVisibility(View.VISIBLE);
         }
+
+        // Update the total price display
+        totalAmountFormatter.format(cart.getTotalAmount());
+        totalPriceTxt.setText(totalAmountFormatter.getChars(), 0, totalAmountFormatter.length());
     }
 
     // Update the quantity of an item in the cart
-    private void updateItemQuantity(int position, int quantityDelta) {
-        int currentQuantity = cartAdapter.fragmentCartItems.get(position).getQuantity();
-        double originalPrice = cartAdapter.fragmentCartItems.get(position).getOriginalPrice();
-        double newAmount;
-
-        // Update the quantity based on the delta
-        currentQuantity += quantityDelta;
-
-        // Check if the new quantity is 0, if so, remove the item from the cart
-        if (currentQuantity == 0) {
-            cartAdapter.fragmentCartItems.remove(position);
-            cartAdapter.notifyItemRemoved(position);
-            updateTotalAmount();
+    private void updateItemQuantity(Class_CartItem cartItem, int quantityDelta) {
+        // The bound row can lag behind quick repeated taps, so start from the cart's current line
+        Class_CartItem currentItem = Class_CartManager.getInstance().getCartItem(cartItem.getLineKey());
+        if (currentItem == null) {
             return;
         }
 
+        // Update the quantity based on the delta
+        int currentQuantity = currentItem.getQuantity() + quantityDelta;
+
         // Check if the new quantity is valid (not negative)
         if (currentQuantity < 0) {
             Toast.makeText(requireContext(), "Quantity cannot be negative.", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        // Retrieve the existing item details
-        Class_CartItem existingItem = cartAdapter.fragmentCartItems.get(position);
-
-        // Calculate the new amount based on the change and original price
-        newAmount = originalPrice * currentQuantity;
-
-        // Create a new Fragment_CartItem object with updated information
-        Class_CartItem updatedItem = new Class_CartItem(
-                existingItem.getItemName(),
-                currentQuantity,
-                originalPrice,
-                existingItem.getImageResourceId() // Include the image resource ID
-        );
-        updatedItem.setTotalPrice(newAmount);
+        // The cart manager adjusts the line and its running totals; a quantity of 0 removes the line
+        if (!Class_CartManager.getInstance().setQuantity(cartItem.getLineKey(), currentQuantity)) {
+            refreshCart();
+            showCartLocked();
+            return;
+        }
 
-        // Replace the existing item with the updated one
-        cartAdapter.fragmentCartItems.set(position, updatedItem);
+        // Update the list and the total amount and items
+        refreshCart();
+        if (currentQuantity == 0) {
+            showUndo("Removed " + cartItem.getItemName());
+        }
+    }
 
-        // Notify the adapter about the change
-        cartAdapter.notifyItemChanged(position);
+    // List the open carts and switch to the one picked
+    private void showOpenCarts() {
+        List<Class_CartManager.Snapshot> openCarts = Class_CartManager.getInstance().getOpenCarts();
+        String[] labels = new String[openCarts.size()];
+        for (int i = 0; i < labels.length; i++) {
+            Class_CartManager.Snapshot cart = openCarts.get(i);
+            labels[i] = "Tab " + cart.getCartNumber() + (cart.isActive() ? " (current)" : "")
+                    + " - " + cart.getTotalQuantity() + " items, " + cart.getTotalAmount();
+        }
 
-        // Update total amount and items
-        updateTotalAmount();
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Open Tabs")
+                .setItems(labels, (dialog, which) -> {
+                    Class_CartManager.getInstance().switchToCart(openCarts.get(which).getCartNumber());
+                    refreshCart();
+                })
+                .show();
     }
 
     // Perform the checkout process
-    private void performCheckout(double totalAmount, int totalItems) {
+    private void performCheckout(Class_CartManager.Snapshot cart) {
+        Class_Money totalAmount = cart.getTotalAmount();
+        int totalItems = cart.getTotalQuantity();
         if (totalItems == 0) {
             Toast.makeText(requireContext(), "Your cart is empty. Add items before confirming.", Toast.LENGTH_SHORT).show();
             return;
         }
+        if (Class_CartManager.getInstance().isCheckingOut(cart.getCartNumber())) {
+            Toast.makeText(requireContext(), "This order is already being placed.", Toast.LENGTH_SHORT).show();
+            return;
+        }
         AlertDialog.Builder builder = new AlertDialog.Builder(requireContext());
         builder.setTitle("Confirm Order")
-                .setMessage("Confirm your order with a total amount of ₱" + totalAmount + " and " + totalItems + " items?")
+                .setMessage("Confirm your order with a total amount of " + totalAmount + " and " + totalItems + " items?")
                 .setPositiveButton("Confirm", (dialog, which) -> {
-                    // Insert order data into the database
-                    long orderId = saveOrderInDatabase(totalAmount, totalItems);
-
-                    if (orderId != -1) {
-                        Toast.makeText(requireContext(), "Order placed successfully!", Toast.LENGTH_SHORT).show();
-
-                        // Clear the cart after successful order placement
-                        clearCart();
-
-                        // You can also navigate to a success screen or perform other actions
-                    } else {
-                        Toast.makeText(requireContext(), "Failed to place order. Please try again.", Toast.LENGTH_SHORT).show();
-                    }
+                    // Insert order data into the database in the background; the repository closes the
+                    // cart once it is written, even if this screen is gone or the cashier switched tabs
+                    LiveData<Long> placedOrder = saveOrderInDatabase(cart);
+                    checkoutBtn.setEnabled(false);
+                    placedOrder.observe(getViewLifecycleOwner(), orderId -> {
+                        if (orderId != -1) {
+                            Toast.makeText(requireContext(), "Order placed successfully!", Toast.LENGTH_SHORT).show();
+
+                            // You can also navigate to a success screen or perform other actions
+                        } else {
+                            Toast.makeText(requireContext(), "Failed to place order. Please try again.", Toast.LENGTH_SHORT).show();
+                        }
+                        refreshCart();
+                    });
 
                     dialog.dismiss();
                 })
@@ -214,96 +256,87 @@ public class Fragment_Cart extends Fragment {
                 .show();
     }
 
-    private void confirmClearCart() {
+    private void clearCartWithUndo() {
         // Check if the cart is empty
         if (isCartEmpty()) {
             Toast.makeText(requireContext(), "Your cart is already empty.", Toast.LENGTH_SHORT).show();
-            return; // Don't show the confirmation dialog if the cart is empty
+            return;
         }
 
-        // If the cart is not empty, show the confirmation dialog
-        AlertDialog.Builder builder = new AlertDialog.Builder(requireContext());
-        builder.setTitle("Clear Cart")
-                .setMessage("Are you sure you want to clear your cart?")
-                .setPositiveButton("Yes", (dialog, which) -> {
-                    clearCart(); // Clear the cart if the user clicks "Yes"
-                    dialog.dismiss();
-                })
-                .setNegativeButton("No", (dialog, which) -> {
-                    dialog.dismiss();
-                })
-                .show();
+        if (!clearCart()) {
+            showCartLocked();
+            return;
+        }
+        showUndo("Cart cleared");
+    }
+
+    // Explain why a change was refused; the checkout button is already disabled for this tab
+    private void showCartLocked() {
+        if (Class_CartManager.getInstance().isActiveCartCheckingOut()) {
+            Toast.makeText(requireContext(), "This tab is being checked out and cannot be changed.", Toast.LENGTH_SHORT).show();
+        }
     }
 
     // Check if the cart is empty
     private boolean isCartEmpty() {
-        List<Class_CartItem> cartItems = Fragment_Clickedorder.CartManager.getInstance().getCartItems();
-        return cartItems == null || cartItems.isEmpty();
+        return Class_CartManager.getInstance().isEmpty();
     }
 
     // Clear the cart
-    private void clearCart() {
-        Fragment_Clickedorder.CartManager.getInstance().clearCart();
-        updateTotalAmount(); // Update total amount after clearing the cart
+    private boolean clearCart() {
+        boolean cleared = Class_CartManager.getInstance().clearCart();
+        refreshCart(); // Update the list and total amount after clearing the cart
+        return cleared;
     }
 
-    // Save the order details in the database
-    private long saveOrderInDatabase(double totalAmount, int totalItems) {
-        return DatabaseHelper.insertOrder(getContext(), totalAmount, totalItems);
+    // Save the order details in the database from one snapshot, so the items and totals always match
+    private LiveData<Long> saveOrderInDatabase(Class_CartManager.Snapshot cart) {
+        return Class_CafeRepository.getInstance(requireContext()).checkOutCart(cart);
     }
 
-    // Calculate the total amount of items in the cart
-    private double calculateTotalAmount() {
-        Fragment_Clickedorder.CartManager cartManager = Fragment_Clickedorder.CartManager.getInstance();
-
-        List<Class_CartItem> fragmentCartItems = cartManager.getCartItems();
+    // CartAdapter class
+    public static class CartAdapter extends ListAdapter<Class_CartItem, CartViewHolder> {
+        // Payload telling a row that only its quantity and price changed
+        static final Object PAYLOAD_QUANTITY = new Object();
 
-        double totalAmount = 0;
+        private final OnItemClickListener itemClickListener;
 
-        if (fragmentCartItems != null) {
-            for (Class_CartItem fragmentCartItem : fragmentCartItems) {
-                totalAmount += fragmentCartItem.getTotalPrice();
-            }
+        // Interface to handle item click events
+        public interface OnItemClickListener {
+            void onMinusButtonClick(Class_CartItem cartItem);
+            void onPlusButtonClick(Class_CartItem cartItem);
+            void onTrashButtonClick(Class_CartItem cartItem);
         }
-        return totalAmount;
-    }
 
-    // Calculate the total quantity of items in the cart
-    private int calculateTotalQuantity() {
-        Fragment_Clickedorder.CartManager cartManager = Fragment_Clickedorder.CartManager.getInstance();
-        List<Class_CartItem> fragmentCartItems = cartManager.getCartItems();
-        int totalQuantity = 0;
-
-        if (fragmentCartItems != null) {
-            for (Class_CartItem fragmentCartItem : fragmentCartItems) {
-                totalQuantity += fragmentCartItem.getQuantity();
+        // Cart lines are the same row when they hold the same product with the same modifiers
+        private static final DiffUtil.ItemCallback<Class_CartItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<Class_CartItem>() {
+            @Override
+            public boolean areItemsTheSame(@NonNull Class_CartItem oldItem, @NonNull Class_CartItem newItem) {
+                return oldItem.getLineKey() == newItem.getLineKey();
             }
-        }
-        return totalQuantity;
-    }
 
-    // CartAdapter class
-    public static class CartAdapter extends RecyclerView.Adapter<CartViewHolder> {
-        private List<Class_CartItem> fragmentCartItems;
-        private OnItemClickListener itemClickListener;
+            @Override
+            public boolean areContentsTheSame(@NonNull Class_CartItem oldItem, @NonNull Class_CartItem newItem) {
+                return oldItem.getQuantity() == newItem.getQuantity()
+                        && oldItem.getTotalPrice().equals(newItem.getTotalPrice());
+            }
 
-        // Interface to handle item click events
-        public interface OnItemClickListener {
-            void onMinusButtonClick(int position);
-            void onPlusButtonClick(int position);
-            void onTrashButtonClick(int position);
-        }
+            @Override
+            public Object getChangePayload(@NonNull Class_CartItem oldItem, @NonNull Class_CartItem newItem) {
+                return PAYLOAD_QUANTITY;
+            }
+        };
 
         // Constructor
-        public CartAdapter(List<Class_CartItem> fragmentCartItems, OnItemClickListener itemClickListener) {
-            this.fragmentCartItems = fragmentCartItems;
+        public CartAdapter(OnItemClickListener itemClickListener) {
+            super(DIFF_CALLBACK);
             this.itemClickListener = itemClickListener;
+            setHasStableIds(true);
         }
 
-        // Update the dataset of the adapter
-        public void updateDataset(List<Class_CartItem> newFragmentCartItems) {
-            this.fragmentCartItems = newFragmentCartItems;
-            notifyDataSetChanged();
+        @Override
+        public long getItemId(int position) {
+            return getItem(position).getLineKey();
         }
 
         // Create new view holders
@@ -311,71 +344,120 @@ public class Fragment_Cart extends Fragment {
         @Override
         public CartViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
             View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.fragment_cartitem, parent, false);
-            return new CartViewHolder(view);
-
+            return new CartViewHolder(view, itemClickListener);
         }
 
         // Bind data to view holders
         @Override
         public void onBindViewHolder(@NonNull CartViewHolder holder, int position) {
-            Class_CartItem fragmentCartItem = fragmentCartItems.get(position);
-            holder.bind(fragmentCartItem, itemClickListener);
+            holder.bind(getItem(position));
+        }
+
+        // A quantity change rebinds only the quantity and price text
+        @Override
+        public void onBindViewHolder(@NonNull CartViewHolder holder, int position, @NonNull List<Object> payloads) {
+            if (payloads.contains(PAYLOAD_QUANTITY)) {
+                holder.bindQuantity(getItem(position));
+            } else {
+                onBindViewHolder(holder, position);
+            }
         }
 
-        // Return the size of the dataset
+        // Let go of the row's image so the loader can reuse it once it leaves the cache
         @Override
-        public int getItemCount() {
-            return fragmentCartItems != null ? fragmentCartItems.size() : 0;
+        public void onViewRecycled(@NonNull CartViewHolder holder) {
+            Class_ImageLoader.getInstance(holder.itemView.getContext()).clear(holder.itemImage);
         }
     }
 
     // View holder for the cart items
     public static class CartViewHolder extends RecyclerView.ViewHolder {
+        private static final char[] QUANTITY_LABEL = "Quantity: ".toCharArray();
+
         private ImageView minusQty, plusQty, itemImage, trashBtn;
-        private TextView itemNameTxt, quantityTxt, priceTxt;
+        private TextView itemNameTxt, modifiersTxt, quantityTxt, priceTxt;
+        // Reused text buffers
+        private final char[] quantityChars = new char[QUANTITY_LABEL.length + 11];
+        private final Class_MoneyFormatter priceFormatter = new Class_MoneyFormatter("Price: ");
+        private Class_CartItem boundItem;
 
         // Constructor
-        public CartViewHolder(@NonNull View itemView) {
+        public CartViewHolder(@NonNull View itemView, CartAdapter.OnItemClickListener itemClickListener) {
             super(itemView);
             // Initialize views in the view holder
             itemImage = itemView.findViewById(R.id.itemViewImage);
             itemNameTxt = itemView.findViewById(R.id.itemNameTxt);
+            modifiersTxt = itemView.findViewById(R.id.modifiersTxt);
             quantityTxt = itemView.findViewById(R.id.quantityTxt);
             priceTxt = itemView.findViewById(R.id.priceTxt);
             minusQty = itemView.findViewById(R.id.minusQtyBtn);
             plusQty = itemView.findViewById(R.id.addQtyBtn);
             trashBtn = itemView.findViewById(R.id.trashBtn);
-        }
-
-        // Bind data to views in the view holder
-        public void bind(Class_CartItem fragmentCartItem, CartAdapter.OnItemClickListener itemClickListener) {
-            // Load item image using the resource ID
-            itemImage.setImageResource(fragmentCartItem.getImageResourceId());
 
-            itemNameTxt.setText(fragmentCartItem.getItemName());
-            quantityTxt.setText("Quantity: " + fragmentCartItem.getQuantity());
-            priceTxt.setText("Price: " + fragmentCartItem.getTotalPrice());
+            System.arraycopy(QUANTITY_LABEL, 0, quantityChars, 0, QUANTITY_LABEL.length);
 
-            // Set click listeners for quantity adjustment buttons
+            // Set click listeners once; they act on whichever item is bound when tapped
             minusQty.setOnClickListener(v -> {
-                if (itemClickListener != null) {
-                    itemClickListener.onMinusButtonClick(getAdapterPosition());
+                if (itemClickListener != null && boundItem != null) {
+                    itemClickListener.onMinusButtonClick(boundItem);
                 }
             });
 
             plusQty.setOnClickListener(v -> {
-                if (itemClickListener != null) {
-                    itemClickListener.onPlusButtonClick(getAdapterPosition());
+                if (itemClickListener != null && boundItem != null) {
+                    itemClickListener.onPlusButtonClick(boundItem);
                 }
             });
 
             // Set click listener for trash button
             trashBtn.setOnClickListener(v -> {
-                if (itemClickListener != null) {
-                    itemClickListener.onTrashButtonClick(getAdapterPosition());
+                if (itemClickListener != null && boundItem != null) {
+                    itemClickListener.onTrashButtonClick(boundItem);
                 }
             });
         }
 
+        // Bind data to views in the view holder
+        public void bind(Class_CartItem fragmentCartItem) {
+            // Load item image using the resource ID, decoded at the row's size and cached
+            Class_ImageLoader.getInstance(itemView.getContext()).load(fragmentCartItem.getImageResourceId(), itemImage);
+
+            itemNameTxt.setText(fragmentCartItem.getItemName());
+
+            // Size, sugar level and add-ons; the line key never changes for a row, so this is set only on full binds
+            String modifiers = Class_Modifiers.describe(fragmentCartItem.getModifiers());
+            modifiersTxt.setText(modifiers);
+            modifiersTxt.setVisibility(modifiers.isEmpty() ? View.GONE : View.VISIBLE);
+            bindQuantity(fragmentCartItem);
+        }
+
+        // Rebind only the quantity and price text, writing digits into the reused buffers
+        public void bindQuantity(Class_CartItem fragmentCartItem) {
+            boundItem = fragmentCartItem;
+
+            int quantityEnd = writeLong(quantityChars, QUANTITY_LABEL.length, fragmentCartItem.getQuantity());
+            quantityTxt.setText(quantityChars, 0, quantityEnd);
+
+            priceFormatter.format(fragmentCartItem.getTotalPrice());
+            priceTxt.setText(priceFormatter.getChars(), 0, priceFormatter.length());
+        }
+
+        // Write the decimal digits of value at offset and return the index after the last digit
+        private static int writeLong(char[] buffer, int offset, long value) {
+            if (value < 0) {
+                buffer[offset++] = '-';
+                value = -value;
+            }
+            int digits = 1;
+            for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+                digits++;
+            }
+            int end = offset + digits;
+            for (int i = end - 1; i >= offset; i--) {
+                buffer[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            return end;
+        }
     }
 }
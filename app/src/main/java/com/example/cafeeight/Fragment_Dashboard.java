@@ -2,7 +2,6 @@ package com.example.cafeeight;
 
 import android.graphics.Color;
 import android.os.Bundle;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -15,16 +14,15 @@ import com.jjoe64.graphview.helper.StaticLabelsFormatter;
 import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
-import java.util.Date;
-import java.util.List;
-import java.util.Locale;
 
 public class Fragment_Dashboard extends Fragment {
 
     private static final int MAX_Y_VALUE = 20000;
+    private static final int DAYS_IN_WEEK = 7;
+
+    private long weekStartDay;
+    private double[] weeklySales;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -32,10 +30,6 @@ public class Fragment_Dashboard extends Fragment {
 
         GraphView graphView = view.findViewById(R.id.idGraphView);
 
-        List<Order> dailyOrders = getDailySalesData();
-
-        LineGraphSeries<DataPoint> series = new LineGraphSeries<>(getDataPoints(dailyOrders));
-
         graphView.setTitleColor(getResources().getColor(R.color.black));
         graphView.setTitleTextSize(24);
 
@@ -47,85 +41,55 @@ public class Fragment_Dashboard extends Fragment {
         staticLabelsFormatter.setHorizontalLabels(new String[]{"","Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"});
         graphView.getGridLabelRenderer().setLabelFormatter(staticLabelsFormatter);
 
-        graphView.addSeries(series);
-        updateGraph();
-        return view;
-    }
-
-    private void updateGraph() {
-        if (getView() != null) {
-            GraphView graphView = getView().findViewById(R.id.idGraphView);
+        weekStartDay = getWeekStartDay();
+        weeklySales = new double[DAYS_IN_WEEK];
+        updateGraph(graphView, weekStartDay, DAYS_IN_WEEK);
 
-            if (graphView != null) {
-                List<Order> updatedData = new DatabaseHelper(requireContext()).getUpdatedData();
+        // Refetch only the days of this week that a new order touched
+        Class_CafeRepository.getInstance(requireContext()).getInvalidationTracker()
+                .observe(getViewLifecycleOwner(), DatabaseHelper.TABLE_DAILY_SALES, (table, fromDay, toDay) -> {
+                    long firstDay = Math.max(fromDay, weekStartDay);
+                    long lastDay = Math.min(toDay, weekStartDay + DAYS_IN_WEEK - 1);
+                    if (firstDay <= lastDay) {
+                        updateGraph(graphView, firstDay, (int) (lastDay - firstDay + 1));
+                    }
+                });
 
-                LineGraphSeries<DataPoint> series = new LineGraphSeries<>(getDataPoints(updatedData));
-                series.setDrawDataPoints(false);
-                series.setColor(Color.RED);
-                series.setThickness(4);
+        return view;
+    }
 
-                graphView.removeAllSeries();graphView.addSeries(series);
-            } else {
-                Log.e("Fragment_Dashboard", "GraphView is null");
-            }
-        } else {
-            Log.e("Fragment_Dashboard", "Fragment view is null");
-        }
+    // Load the daily totals for the given days and patch them into the week shown on the graph
+    private void updateGraph(GraphView graphView, long fromDay, int dayCount) {
+        Class_CafeRepository.getInstance(requireContext()).getDailySalesTotals(fromDay, dayCount)
+                .observe(getViewLifecycleOwner(), dailySales -> {
+                    System.arraycopy(dailySales, 0, weeklySales, (int) (fromDay - weekStartDay), dayCount);
+                    showWeeklySales(graphView, weeklySales);
+                });
     }
 
+    private void showWeeklySales(GraphView graphView, double[] weeklySales) {
+        LineGraphSeries<DataPoint> series = new LineGraphSeries<>(getDataPoints(weeklySales));
+        series.setDrawDataPoints(false);
+        series.setColor(Color.RED);
+        series.setThickness(4);
 
-    private List<Order> getDailySalesData() {
-        return new DatabaseHelper(requireContext()).getTodaySalesData();
+        graphView.removeAllSeries();
+        graphView.addSeries(series);
     }
 
-    private DataPoint[] getDataPoints(List<Order> dailyOrders) {
-
+    // Epoch day of Monday in the current week
+    private long getWeekStartDay() {
         Calendar calendar = Calendar.getInstance();
         calendar.set(Calendar.DAY_OF_WEEK, Calendar.MONDAY);
-
-        DataPoint[] dataPoints = new DataPoint[7];
-        for (int i = 0; i < 7; i++) {
-            double saleValue = 0;
-            for (Order order : dailyOrders) {
-                if (isSameDay(order.getOrderDate(), getDateString(calendar))) {
-                    saleValue += order.getTotalAmount();
-                }
-            }
-            dataPoints[i] = new DataPoint(i, saleValue);
-            calendar.add(Calendar.DAY_OF_MONTH, 1);
-        }
-        return dataPoints;
+        return DatabaseHelper.toEpochDay(calendar.getTimeInMillis());
     }
 
-    private boolean isSameDay(String dateString1, String dateString2) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-
-        try {
-            Date date1 = dateFormat.parse(dateString1);
-            Date date2 = dateFormat.parse(dateString2);
-
-            if (date1 != null && date2 != null) {
-                Calendar cal1 = Calendar.getInstance();
-                Calendar cal2 = Calendar.getInstance();
-                cal1.setTime(date1);
-                cal2.setTime(date2);
-
-
-                return cal1.get(Calendar.YEAR) == cal2.get(Calendar.YEAR)
-                        && cal1.get(Calendar.MONTH) == cal2.get(Calendar.MONTH)
-                        && cal1.get(Calendar.DAY_OF_MONTH) == cal2.get(Calendar.DAY_OF_MONTH);
-            }
-        } catch (ParseException e) {
-
-            Log.e("Date Parsing Error", "Error parsing date", e);
+    private DataPoint[] getDataPoints(double[] dailySales) {
+        DataPoint[] dataPoints = new DataPoint[dailySales.length];
+        for (int i = 0; i < dailySales.length; i++) {
+            dataPoints[i] = new DataPoint(i, dailySales[i]);
         }
-
-        return false;
-    }
-
-    private String getDateString(Calendar calendar) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        return dateFormat.format(calendar.getTime());
+        return dataPoints;
     }
 
 }
@@ -0,0 +1,129 @@
+package com.example.cafeeight;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.viewpager2.widget.ViewPager2;
+
+public class Fragment_Orders extends Fragment {
+
+    // Categories in the order of their buttons; ids match assets/menu.json
+    private static final String[] CATEGORY_IDS = {"hot_coffee", "iced_coffee", "frappe", "non_coffee", "protein_shake"};
+    private static final int[] CATEGORY_BUTTON_IDS = {R.id.hotcoffee, R.id.icedcoffee, R.id.frappedrinks, R.id.noncoffee, R.id.proteinshakes};
+    // Pages kept built on each side of the visible one; pages further away are recycled
+    private static final int OFFSCREEN_PAGES = 1;
+    private static final int GRID_PADDING_DP = 10;
+
+    private ViewPager2 categoryPager;
+    private CategoryPagerAdapter pagerAdapter;
+    // The fragment instance outlives its view, so the category comes back when returning to the tab
+    private int currentPage;
+    // Rebinds every page when a newer menu is loaded
+    private final Runnable onMenuChanged = () -> pagerAdapter.notifyItemRangeChanged(0, CATEGORY_IDS.length);
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        View view = inflater.inflate(R.layout.fragment_orders, container, false);
+
+        // Open the shared product panel in place
+        Activity_Main activity = (Activity_Main) requireActivity();
+        pagerAdapter = new CategoryPagerAdapter(activity.getProductGridPool(),
+                productId -> activity.getProductSheet().show(productId));
+
+        categoryPager = view.findViewById(R.id.categoryPager);
+        categoryPager.setOffscreenPageLimit(OFFSCREEN_PAGES);
+        categoryPager.setAdapter(pagerAdapter);
+        // Only the category buttons change pages; a sideways swipe on the grid must not switch category
+        categoryPager.setUserInputEnabled(false);
+        categoryPager.setCurrentItem(currentPage, false);
+        Class_ProductCatalog.getInstance(requireContext()).addOnMenuChangedListener(onMenuChanged);
+
+        // Category buttons flip pages in place: no new fragment, no inflation and nothing added to the back stack
+        for (int page = 0; page < CATEGORY_BUTTON_IDS.length; page++) {
+            int selectedPage = page;
+            view.findViewById(CATEGORY_BUTTON_IDS[page]).setOnClickListener(v -> categoryPager.setCurrentItem(selectedPage, false));
+        }
+
+        ImageView cartImageView = view.findViewById(R.id.cart);
+        cartImageView.setOnClickListener(v -> openCartFragment());
+
+        return view;
+    }
+
+    @Override
+    public void onDestroyView() {
+        currentPage = categoryPager.getCurrentItem();
+        Class_ProductCatalog.getInstance(requireContext()).removeOnMenuChangedListener(onMenuChanged);
+        super.onDestroyView();
+    }
+
+    private void openCartFragment() {
+        Fragment_Cart cartFragment = new Fragment_Cart();
+        getParentFragmentManager().beginTransaction()
+                .replace(R.id.fragment_container, cartFragment)
+                .addToBackStack(null)
+                .commit();
+    }
+
+    // One page per category. Each page is a product grid built in code, so a new page inflates no layout,
+    // and its cells come from the activity's shared pool.
+    private class CategoryPagerAdapter extends RecyclerView.Adapter<CategoryPageHolder> {
+        private final RecyclerView.RecycledViewPool sharedPool;
+        private final Class_ProductGridAdapter.OnProductClickListener productClickListener;
+
+        CategoryPagerAdapter(RecyclerView.RecycledViewPool sharedPool,
+                             Class_ProductGridAdapter.OnProductClickListener productClickListener) {
+            this.sharedPool = sharedPool;
+            this.productClickListener = productClickListener;
+            setHasStableIds(true);
+        }
+
+        @Override
+        public int getItemCount() {
+            return CATEGORY_IDS.length;
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return position;
+        }
+
+        @NonNull
+        @Override
+        public CategoryPageHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            RecyclerView grid = new RecyclerView(parent.getContext());
+            // ViewPager2 requires pages to fill it
+            grid.setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+            int padding = Math.round(GRID_PADDING_DP * parent.getResources().getDisplayMetrics().density);
+            grid.setPadding(padding, padding, padding, padding);
+            grid.setClipToPadding(false);
+
+            Class_ProductGridAdapter productAdapter = new Class_ProductGridAdapter(productClickListener);
+            productAdapter.attachTo(grid, sharedPool);
+            return new CategoryPageHolder(grid, productAdapter);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull CategoryPageHolder holder, int position) {
+            holder.productAdapter.submitList(Class_ProductCatalog.getInstance(requireContext()).getMenu()
+                    .getProducts(CATEGORY_IDS[position]));
+        }
+    }
+
+    private static class CategoryPageHolder extends RecyclerView.ViewHolder {
+        final Class_ProductGridAdapter productAdapter;
+
+        CategoryPageHolder(@NonNull RecyclerView grid, Class_ProductGridAdapter productAdapter) {
+            super(grid);
+            this.productAdapter = productAdapter;
+        }
+    }
+}
@@ -4,33 +4,53 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.Button;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.LiveData;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.text.SimpleDateFormat;
+import java.util.Calendar;
 import java.util.List;
 import java.util.Locale;
 
 public class Fragment_Transactions extends Fragment {
 
+    private static final int PAGE_SIZE = 50;
+    // Start loading the next page when the user is this many rows from the end
+    private static final int PREFETCH_DISTANCE = 20;
+
+    private static final String[] EXPORT_RANGES = {"This month", "Last month", "All orders"};
+    private static final String[] EXPORT_FORMATS = {"CSV", "JSON"};
+
     private TextView textViewTotalAmount;
     private View view;  // Added: to store the inflated view
 
+    private RecyclerView recyclerView;
+    private TextView emptyText;
+    private LinearLayoutManager layoutManager;
+    private OrderAdapter orderAdapter;
+    private boolean isLoading;
+    private boolean isLastPageLoaded;
+    private boolean isLoadingNewOrders;
+    private boolean hasMissedNewOrders;
+    private Button exportBtn;
+    private TextView exportProgressText;
+
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         // Modified: Store the inflated view in the 'view' variable
         view = inflater.inflate(R.layout.fragment_transactions, container, false);
 
         textViewTotalAmount = view.findViewById(R.id.textViewTotalAmount);
-
-        // Ensure that databaseHelper is initialized
-        if (Fragment_Cart.databaseHelper == null) {
-            Fragment_Cart.databaseHelper = new DatabaseHelper(requireContext());
-        }
+        exportBtn = view.findViewById(R.id.exportBtn);
+        exportProgressText = view.findViewById(R.id.exportProgressText);
+        exportBtn.setOnClickListener(v -> showExportRangeDialog());
 
         displayOrderDetails();
 
@@ -43,25 +63,87 @@ public class Fragment_Transactions extends Fragment {
             return;
         }
 
-        // Ensure that databaseHelper is initialized
-        if (Fragment_Cart.databaseHelper == null) {
-            Fragment_Cart.databaseHelper = new DatabaseHelper(requireContext());
+        recyclerView = view.findViewById(R.id.recyclerView);
+        emptyText = view.findViewById(R.id.emptyText);
+
+        layoutManager = new LinearLayoutManager(requireContext());
+        orderAdapter = new OrderAdapter();
+        isLoading = false;
+        isLastPageLoaded = false;
+        isLoadingNewOrders = false;
+        hasMissedNewOrders = false;
+
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setAdapter(orderAdapter);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0) {
+                    loadNextPageIfNeeded();
+                }
+            }
+        });
+
+        // Prepend orders placed while this screen is showing instead of reloading the list
+        Class_CafeRepository.getInstance(requireContext()).getInvalidationTracker()
+                .observe(getViewLifecycleOwner(), DatabaseHelper.TABLE_ORDERS, (table, fromDay, toDay) -> loadNewOrders());
+
+        loadNextPage();
+    }
+
+    private void loadNewOrders() {
+        // The first page is still loading and will already include the new orders
+        if (orderAdapter.getItemCount() == 0 && !isLastPageLoaded) {
+            return;
+        }
+        if (isLoadingNewOrders) {
+            hasMissedNewOrders = true;
+            return;
+        }
+        isLoadingNewOrders = true;
+        Class_CafeRepository.getInstance(requireContext()).getOrdersNewerThan(orderAdapter.getFirstOrderId())
+                .observe(getViewLifecycleOwner(), newOrders -> {
+                    isLoadingNewOrders = false;
+                    orderAdapter.prependOrders(newOrders);
+                    updateEmptyState();
+                    if (hasMissedNewOrders) {
+                        hasMissedNewOrders = false;
+                        loadNewOrders();
+                    }
+                });
+    }
+
+    // Prefetch ahead of the visible window so the list rarely runs out while scrolling
+    private void loadNextPageIfNeeded() {
+        if (isLoading || isLastPageLoaded) {
+            return;
         }
+        int lastVisiblePosition = layoutManager.findLastVisibleItemPosition();
+        if (lastVisiblePosition + PREFETCH_DISTANCE >= orderAdapter.getItemCount()) {
+            loadNextPage();
+        }
+    }
 
-        List<Order> orderList = retrieveOrdersFromDatabase();
+    // The page arrives on the main thread after the scroll callback, so appending to the adapter is safe
+    private void loadNextPage() {
+        isLoading = true;
+        retrieveOrdersFromDatabase(orderAdapter.getLastOrderId()).observe(getViewLifecycleOwner(), this::onPageLoaded);
+    }
 
-        RecyclerView recyclerView = view.findViewById(R.id.recyclerView);
-        TextView emptyText = view.findViewById(R.id.emptyText);
+    private void onPageLoaded(List<Order> page) {
+        isLoading = false;
+        if (page.size() < PAGE_SIZE) {
+            isLastPageLoaded = true;
+        }
+        orderAdapter.appendOrders(page);
+        updateEmptyState();
+    }
 
-        if (orderList != null && !orderList.isEmpty()) {
+    private void updateEmptyState() {
+        if (orderAdapter.getItemCount() > 0) {
             // Display the details of all orders
             recyclerView.setVisibility(View.VISIBLE);
             emptyText.setVisibility(View.GONE);
-
-            // Create and set up the adapter with your orderList
-            OrderAdapter orderAdapter = new OrderAdapter(orderList);
-            recyclerView.setAdapter(orderAdapter);
-            recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
         } else {
             // Display a message if there are no orders
             recyclerView.setVisibility(View.GONE);
@@ -69,7 +151,69 @@ public class Fragment_Transactions extends Fragment {
         }
     }
 
-    private List<Order> retrieveOrdersFromDatabase() {
-        return Fragment_Cart.databaseHelper.getAllConfirmedOrders();
+    private void showExportRangeDialog() {
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Export orders")
+                .setItems(EXPORT_RANGES, (dialog, which) -> showExportFormatDialog(which))
+                .show();
+    }
+
+    private void showExportFormatDialog(int range) {
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Export format")
+                .setItems(EXPORT_FORMATS, (dialog, which) -> exportOrders(range,
+                        which == 0 ? Class_OrderExporter.Format.CSV : Class_OrderExporter.Format.JSON))
+                .show();
+    }
+
+    // The export streams from the database in the background; only progress comes back to the UI
+    private void exportOrders(int range, Class_OrderExporter.Format format) {
+        Calendar monthStart = Calendar.getInstance();
+        monthStart.set(Calendar.DAY_OF_MONTH, 1);
+        monthStart.set(Calendar.HOUR_OF_DAY, 0);
+        monthStart.set(Calendar.MINUTE, 0);
+        monthStart.set(Calendar.SECOND, 0);
+        monthStart.set(Calendar.MILLISECOND, 0);
+
+        long fromMillis;
+        long toMillis;
+        if (range == 0) {
+            fromMillis = monthStart.getTimeInMillis();
+            toMillis = Long.MAX_VALUE;
+        } else if (range == 1) {
+            toMillis = monthStart.getTimeInMillis();
+            monthStart.add(Calendar.MONTH, -1);
+            fromMillis = monthStart.getTimeInMillis();
+        } else {
+            fromMillis = 0;
+            toMillis = Long.MAX_VALUE;
+        }
+
+        exportBtn.setEnabled(false);
+        exportProgressText.setVisibility(View.VISIBLE);
+        exportProgressText.setText("Preparing export...");
+        Class_CafeRepository.getInstance(requireContext()).exportOrders(fromMillis, toMillis, format)
+                .observe(getViewLifecycleOwner(), this::onExportProgress);
+    }
+
+    private void onExportProgress(Class_OrderExporter.Progress progress) {
+        if (!progress.isDone()) {
+            exportProgressText.setText(String.format(Locale.getDefault(), "Exported %,d of %,d orders",
+                    progress.getExportedRows(), progress.getTotalRows()));
+            return;
+        }
+
+        exportBtn.setEnabled(true);
+        if (progress.isFailed()) {
+            exportProgressText.setText("Export failed");
+        } else {
+            exportProgressText.setText(String.format(Locale.getDefault(), "Exported %,d orders to %s",
+                    progress.getExportedRows(), progress.getFile().getName()));
+            Toast.makeText(requireContext(), "Saved to " + progress.getFile().getPath(), Toast.LENGTH_LONG).show();
+        }
+    }
+
+    private LiveData<List<Order>> retrieveOrdersFromDatabase(long beforeOrderId) {
+        return Class_CafeRepository.getInstance(requireContext()).getConfirmedOrdersPage(beforeOrderId, PAGE_SIZE);
     }
 }
@@ -6,7 +6,7 @@ package com.example.cafeeight;
 public class Order {
 
     private int orderId;
-    private double totalAmount;
+    private Class_Money totalAmount;
     private int totalItems;
     private String orderDate;
 
@@ -17,7 +17,7 @@ public class Order {
      * @param totalAmount The total amount of the order.
      * @param totalItems  The total number of items in the order.
      */
-    public Order(int orderId, double totalAmount, int totalItems, String orderDate) {
+    public Order(int orderId, Class_Money totalAmount, int totalItems, String orderDate) {
         this.orderId = orderId;
         this.totalAmount = totalAmount;
         this.totalItems = totalItems;
@@ -38,7 +38,7 @@ public class Order {
      *
      * @return The total amount.
      */
-    public double getTotalAmount() {
+    public Class_Money getTotalAmount() {
         return totalAmount;
     }
 
@@ -8,14 +8,34 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHolder> {
 
-    private List<Order> orderList;
+    private final List<Order> orderList = new ArrayList<>();
 
-    public OrderAdapter(List<Order> orderList) {
-        this.orderList = orderList;
+    // Append the next page of older orders below the ones already shown
+    public void appendOrders(List<Order> page) {
+        int start = orderList.size();
+        orderList.addAll(page);
+        notifyItemRangeInserted(start, page.size());
+    }
+
+    // Insert orders that were placed after the newest one already shown
+    public void prependOrders(List<Order> newOrders) {
+        orderList.addAll(0, newOrders);
+        notifyItemRangeInserted(0, newOrders.size());
+    }
+
+    // Order id of the newest order loaded so far, or 0 if nothing is loaded yet
+    public long getFirstOrderId() {
+        return orderList.isEmpty() ? 0 : orderList.get(0).getOrderId();
+    }
+
+    // Order id of the oldest order loaded so far, used as the keyset for the next page
+    public long getLastOrderId() {
+        return orderList.isEmpty() ? Long.MAX_VALUE : orderList.get(orderList.size() - 1).getOrderId();
     }
 
     @NonNull
@@ -30,7 +50,8 @@ public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHol
         Order order = orderList.get(position);
 
         holder.orderIdTextView.setText("Order ID: " + order.getOrderId());
-        holder.totalAmountTextView.setText("Total Amount: ₱" + order.getTotalAmount());
+        holder.totalAmountFormatter.format(order.getTotalAmount());
+        holder.totalAmountTextView.setText(holder.totalAmountFormatter.getChars(), 0, holder.totalAmountFormatter.length());
         holder.totalItemsTextView.setText("Total Items: " + order.getTotalItems());
         holder.orderDateTextView.setText("Order Date/Time: " + order.getOrderDate()); // Added line for order date
     }
@@ -45,6 +66,8 @@ public class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHol
         public TextView totalAmountTextView;
         public TextView totalItemsTextView;
         public TextView orderDateTextView; // Added TextView for order date
+        // Reused buffer for the total
+        final Class_MoneyFormatter totalAmountFormatter = new Class_MoneyFormatter("Total Amount: ");
 
         public OrderViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -0,0 +1,115 @@
+package com.example.cafeeight;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the cart journal undoes and redoes each kind of cart
+ * operation, and that it keeps only its most recent entries.
+ */
+public class CartJournalTest {
+
+    private static final int LATTE = 102;
+    private static final int BREWED = 101;
+
+    private Class_Cart cart;
+    private Class_CartJournal journal;
+
+    @Before
+    public void setUp() {
+        cart = new Class_Cart(1, new Class_PricingEngine(Collections.<Class_PricingRule>emptyList(), () -> 0L));
+        journal = new Class_CartJournal(3);
+    }
+
+    @Test
+    public void undoAndRedo_restoreEachLineOperation() {
+        add(LATTE, 1);
+        add(LATTE, 2);
+        setQuantity(LATTE, 5);
+        remove(LATTE);
+        assertTrue(cart.isEmpty());
+
+        assertEquals(Class_CartJournal.OP_REMOVE, journal.undo(cart));
+        assertEquals(5, cart.get(key(LATTE)).getQuantity());
+        assertEquals(Class_CartJournal.OP_SET_QUANTITY, journal.undo(cart));
+        assertEquals(3, cart.get(key(LATTE)).getQuantity());
+        assertEquals(Class_CartJournal.OP_ADD, journal.undo(cart));
+        assertEquals(1, cart.get(key(LATTE)).getQuantity());
+
+        assertEquals(Class_CartJournal.OP_ADD, journal.redo(cart));
+        assertEquals(Class_CartJournal.OP_SET_QUANTITY, journal.redo(cart));
+        assertEquals(Class_CartJournal.OP_REMOVE, journal.redo(cart));
+        assertTrue(cart.isEmpty());
+        assertFalse(journal.canRedo());
+    }
+
+    @Test
+    public void undoClear_bringsBackEveryLine() {
+        add(LATTE, 2);
+        add(BREWED, 1);
+        Class_CartItem[] items = cart.copyItems().toArray(new Class_CartItem[0]);
+        cart.clear();
+        journal.recordClear(items);
+
+        assertEquals(Class_CartJournal.OP_CLEAR, journal.undo(cart));
+        assertEquals(3, cart.getTotalQuantity());
+        assertEquals(Class_Money.ofPesos(235), cart.getTotalAmount());
+
+        assertEquals(Class_CartJournal.OP_CLEAR, journal.redo(cart));
+        assertTrue(cart.isEmpty());
+    }
+
+    @Test
+    public void fullJournal_dropsOldestEntries() {
+        for (int quantity = 1; quantity <= 5; quantity++) {
+            add(LATTE, 1);
+        }
+
+        int undone = 0;
+        while (journal.undo(cart) != 0) {
+            undone++;
+        }
+        assertEquals(3, undone);
+        assertEquals(2, cart.get(key(LATTE)).getQuantity());
+    }
+
+    @Test
+    public void newOperation_discardsRedo() {
+        add(LATTE, 1);
+        journal.undo(cart);
+        assertTrue(journal.canRedo());
+
+        add(BREWED, 1);
+        assertFalse(journal.canRedo());
+        assertEquals(0, journal.redo(cart));
+        assertNull(cart.get(key(LATTE)));
+    }
+
+    // Apply the operation and record it, as Class_CartManager does
+    private void add(int productId, int quantity) {
+        Class_CartItem lineBefore = cart.get(key(productId));
+        cart.add(new Class_CartItem(productId, "Product " + productId, quantity,
+                Class_Money.ofPesos(productId == LATTE ? 90 : 55), 0));
+        journal.recordLine(Class_CartJournal.OP_ADD, key(productId), lineBefore, cart.get(key(productId)));
+    }
+
+    private void setQuantity(int productId, int quantity) {
+        Class_CartItem lineBefore = cart.get(key(productId));
+        cart.setQuantity(key(productId), quantity);
+        journal.recordLine(Class_CartJournal.OP_SET_QUANTITY, key(productId), lineBefore, cart.get(key(productId)));
+    }
+
+    private void remove(int productId) {
+        Class_CartItem lineBefore = cart.get(key(productId));
+        cart.remove(key(productId));
+        journal.recordLine(Class_CartJournal.OP_REMOVE, key(productId), lineBefore, null);
+    }
+
+    private static long key(int productId) {
+        return Class_Modifiers.lineKey(productId, Class_Modifiers.NONE);
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.cafeeight;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Stress test for Class_CartManager. Several writer threads mutate the shared cart
+ * while readers take snapshots, checking that no update is lost and that
+ * every snapshot's totals match its own items.
+ */
+public class CartManagerConcurrencyTest {
+
+    private static final int WRITER_THREADS = 8;
+    private static final int READER_THREADS = 4;
+    private static final int OPERATIONS_PER_WRITER = 20000;
+    private static final int PRODUCT_COUNT = 12;
+    private static final Class_Money UNIT_PRICE = Class_Money.ofPesos(5);
+
+    private Class_CartManager cartManager;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        cartManager = Class_CartManager.getInstance();
+        cartManager.clearCart();
+        executor = Executors.newFixedThreadPool(WRITER_THREADS + READER_THREADS);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        cartManager.clearCart();
+    }
+
+    @Test
+    public void concurrentAdds_areNeverLost() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> writers = new ArrayList<>();
+        for (int t = 0; t < WRITER_THREADS; t++) {
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_WRITER; i++) {
+                    int productId = i % PRODUCT_COUNT;
+                    cartManager.addToCart(newItem(productId, 1));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        awaitAll(writers);
+
+        int expectedQuantity = WRITER_THREADS * OPERATIONS_PER_WRITER;
+        Class_CartManager.Snapshot snapshot = cartManager.getSnapshot();
+        assertEquals(PRODUCT_COUNT, snapshot.getItems().size());
+        assertEquals(expectedQuantity, snapshot.getTotalQuantity());
+        assertEquals(UNIT_PRICE.times(expectedQuantity), snapshot.getTotalAmount());
+        assertSnapshotConsistent(snapshot);
+    }
+
+    @Test
+    public void snapshots_stayConsistentUnderMixedMutations() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        List<Future<Void>> writers = new ArrayList<>();
+        for (int t = 0; t < WRITER_THREADS; t++) {
+            long seed = t;
+            writers.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_WRITER; i++) {
+                    int productId = random.nextInt(PRODUCT_COUNT);
+                    switch (random.nextInt(4)) {
+                        case 0:
+                        case 1:
+                            cartManager.addToCart(newItem(productId, 1 + random.nextInt(3)));
+                            break;
+                        case 2:
+                            cartManager.setQuantity(Class_Modifiers.lineKey(productId, Class_Modifiers.NONE), random.nextInt(5));
+                            break;
+                        default:
+                            cartManager.removeFromCart(Class_Modifiers.lineKey(productId, Class_Modifiers.NONE));
+                            break;
+                    }
+                }
+                return null;
+            }));
+        }
+
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int t = 0; t < READER_THREADS; t++) {
+            readers.add(executor.submit((Callable<Integer>) () -> {
+                start.await();
+                int snapshotsChecked = 0;
+                while (writing.get()) {
+                    assertSnapshotConsistent(cartManager.getSnapshot());
+                    snapshotsChecked++;
+                }
+                return snapshotsChecked;
+            }));
+        }
+
+        start.countDown();
+        awaitAll(writers);
+        writing.set(false);
+        for (Future<Integer> reader : readers) {
+            assertTrue("Reader never ran", reader.get(30, TimeUnit.SECONDS) > 0);
+        }
+
+        Class_CartManager.Snapshot finalSnapshot = cartManager.getSnapshot();
+        assertSnapshotConsistent(finalSnapshot);
+        assertEquals(finalSnapshot.getTotalQuantity(), cartManager.getTotalQuantity());
+        assertEquals(finalSnapshot.getTotalAmount(), cartManager.getTotalAmount());
+    }
+
+    @Test
+    public void checkout_runsOncePerCart_andClosesTheCartOnlyWhenPlaced() {
+        cartManager.addToCart(newItem(1, 2));
+        int cartNumber = cartManager.getSnapshot().getCartNumber();
+
+        assertTrue(cartManager.beginCheckout(cartNumber));
+        assertFalse("Already being written", cartManager.beginCheckout(cartNumber));
+        cartManager.endCheckout(cartNumber, false);
+        assertFalse(cartManager.isCheckingOut(cartNumber));
+        assertEquals(2, cartManager.getTotalQuantity());
+
+        assertTrue(cartManager.beginCheckout(cartNumber));
+        cartManager.endCheckout(cartNumber, true);
+        assertFalse(cartManager.isCheckingOut(cartNumber));
+        assertTrue(cartManager.isEmpty());
+    }
+
+    @Test
+    public void cartBeingCheckedOut_refusesChanges_soNothingIsLostWhenItCloses() {
+        cartManager.addToCart(newItem(1, 2));
+        long lineKey = cartManager.getCartItems().get(0).getLineKey();
+        int cartNumber = cartManager.getSnapshot().getCartNumber();
+        assertTrue(cartManager.beginCheckout(cartNumber));
+
+        // Edits made while the order is being written
+        assertFalse(cartManager.addToCart(newItem(2, 1)));
+        assertFalse(cartManager.setQuantity(lineKey, 5));
+        assertFalse(cartManager.removeFromCart(lineKey));
+        assertFalse(cartManager.clearCart());
+        assertFalse(cartManager.undo());
+        assertEquals(2, cartManager.getTotalQuantity());
+
+        // A new tab opened meanwhile takes items and survives the checked-out tab closing
+        cartManager.newCart();
+        assertTrue(cartManager.addToCart(newItem(3, 1)));
+        cartManager.endCheckout(cartNumber, true);
+
+        assertEquals(1, cartManager.getTotalQuantity());
+        assertEquals(3, cartManager.getCartItems().get(0).getProductId());
+        for (Class_CartManager.Snapshot openCart : cartManager.getOpenCarts()) {
+            assertNotEquals(cartNumber, openCart.getCartNumber());
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void snapshotItems_cannotBeModified() {
+        cartManager.addToCart(newItem(1, 1));
+        cartManager.getCartItems().remove(0);
+    }
+
+    // The totals carried by a snapshot must equal the sum of its own items, and each product appears once
+    private static void assertSnapshotConsistent(Class_CartManager.Snapshot snapshot) {
+        int quantity = 0;
+        Class_Money amount = Class_Money.ZERO;
+        boolean[] seen = new boolean[PRODUCT_COUNT];
+        for (Class_CartItem item : snapshot.getItems()) {
+            assertFalse("Duplicate line for product " + item.getProductId(), seen[item.getProductId()]);
+            seen[item.getProductId()] = true;
+            assertTrue(item.getQuantity() > 0);
+            assertEquals(UNIT_PRICE.times(item.getQuantity()), item.getTotalPrice());
+            quantity += item.getQuantity();
+            amount = amount.plus(item.getTotalPrice());
+        }
+        assertEquals(quantity, snapshot.getTotalQuantity());
+        assertEquals(amount, snapshot.getTotalAmount());
+    }
+
+    private static Class_CartItem newItem(int productId, int quantity) {
+        return new Class_CartItem(productId, "Product " + productId, quantity, UNIT_PRICE, 0);
+    }
+
+    private static <T> void awaitAll(List<Future<T>> futures) throws Exception {
+        for (Future<T> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+    }
+}
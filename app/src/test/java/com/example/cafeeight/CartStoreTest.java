@@ -0,0 +1,191 @@
+package com.example.cafeeight;
+
+import android.content.Context;
+import android.util.AtomicFile;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the saved carts read back exactly as written, that files from
+ * older formats still restore, and that a damaged file restores nothing
+ * rather than a partial cart.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class CartStoreTest {
+
+    private static final int LINE_COUNT = 50;
+    private static final int[] CART_NUMBERS = {1, 2, 4};
+    private static final int[] LINES_PER_CART = {20, 20, 10};
+    private static final int ACTIVE_CART = 2;
+    private static final int WARMUP_RESTORES = 5;
+    private static final int MEASURED_RESTORES = 21;
+    // Restoring a 50-line cart on cold start should take a few milliseconds at most
+    private static final double RESTORE_BUDGET_MS = 5;
+
+    private AtomicFile file;
+    private Class_PricingEngine pricingEngine;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        File cartFile = new File(context.getFilesDir(), "cart-test.bin");
+        cartFile.delete();
+        file = new AtomicFile(cartFile);
+        pricingEngine = Class_PricingEngine.createDefault();
+    }
+
+    @Test
+    public void openCarts_roundTripWithLinesModifiersAndActiveCart() throws IOException {
+        List<Class_CartManager.Snapshot> openCarts = new ArrayList<>();
+        for (int cartIndex = 0; cartIndex < CART_NUMBERS.length; cartIndex++) {
+            openCarts.add(snapshot(CART_NUMBERS[cartIndex], lines(cartIndex * 100, LINES_PER_CART[cartIndex])));
+        }
+        Class_CartStore.write(file, openCarts);
+
+        Class_CartStore.SavedCarts saved = Class_CartStore.read(file, pricingEngine, Class_ProductCatalog.Menu.EMPTY);
+
+        assertEquals(ACTIVE_CART, saved.activeNumber);
+        assertEquals(CART_NUMBERS.length, saved.carts.size());
+        int lineCount = 0;
+        for (int cartIndex = 0; cartIndex < CART_NUMBERS.length; cartIndex++) {
+            Class_Cart cart = saved.carts.get(cartIndex);
+            List<Class_CartItem> written = openCarts.get(cartIndex).getItems();
+            List<Class_CartItem> read = cart.copyItems();
+            assertEquals(CART_NUMBERS[cartIndex], cart.getNumber());
+            assertEquals(written.size(), read.size());
+            for (int i = 0; i < written.size(); i++) {
+                assertLineEquals(written.get(i), read.get(i));
+                // Image ids are looked up again; a product missing from the menu gets the placeholder
+                assertEquals(R.drawable.ic_launcher_foreground, read.get(i).getImageResourceId());
+            }
+            lineCount += read.size();
+        }
+        assertEquals(LINE_COUNT, lineCount);
+    }
+
+    @Test
+    public void fiftyLineCart_restoresWithinBudget() throws IOException {
+        Class_CartStore.write(file, Collections.singletonList(snapshot(ACTIVE_CART, lines(0, LINE_COUNT))));
+
+        for (int i = 0; i < WARMUP_RESTORES; i++) {
+            Class_CartStore.read(file, pricingEngine, Class_ProductCatalog.Menu.EMPTY);
+        }
+        long[] samples = new long[MEASURED_RESTORES];
+        for (int i = 0; i < MEASURED_RESTORES; i++) {
+            long start = System.nanoTime();
+            Class_CartStore.SavedCarts saved = Class_CartStore.read(file, pricingEngine, Class_ProductCatalog.Menu.EMPTY);
+            samples[i] = System.nanoTime() - start;
+            assertEquals(LINE_COUNT, saved.carts.get(0).copyItems().size());
+        }
+        Arrays.sort(samples);
+        double medianMs = samples[MEASURED_RESTORES / 2] / 1e6;
+
+        assertTrue(String.format("Restoring %d lines took %.3f ms, budget is %.1f ms", LINE_COUNT, medianMs, RESTORE_BUDGET_MS),
+                medianMs <= RESTORE_BUDGET_MS);
+    }
+
+    @Test
+    public void formatOneFile_restoresAsTheActiveCart() throws IOException {
+        // Version 1: one cart, prices in floating-point pesos, no modifiers
+        FileOutputStream stream = file.startWrite();
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(Class_CartStore.MAGIC);
+        out.writeInt(1);
+        out.writeInt(2);
+        out.writeInt(101);
+        out.writeUTF("Brewed");
+        out.writeInt(2);
+        out.writeDouble(65.5);
+        out.writeInt(301);
+        out.writeUTF("Mocha Frappe");
+        out.writeInt(1);
+        out.writeDouble(150.0);
+        out.flush();
+        file.finishWrite(stream);
+
+        Class_CartStore.SavedCarts saved = Class_CartStore.read(file, pricingEngine, Class_ProductCatalog.Menu.EMPTY);
+
+        assertEquals(1, saved.activeNumber);
+        assertEquals(1, saved.carts.size());
+        List<Class_CartItem> items = saved.carts.get(0).copyItems();
+        assertEquals(2, items.size());
+        assertEquals(101, items.get(0).getProductId());
+        assertEquals(Class_Modifiers.NONE, items.get(0).getModifiers());
+        assertEquals("Brewed", items.get(0).getItemName());
+        assertEquals(2, items.get(0).getQuantity());
+        assertEquals(Class_Money.ofCentavos(6550), items.get(0).getOriginalPrice());
+        assertEquals(Class_Money.ofPesos(150), items.get(1).getOriginalPrice());
+    }
+
+    @Test
+    public void truncatedFile_restoresNothing() throws IOException {
+        Class_CartStore.write(file, Arrays.asList(snapshot(1, lines(0, 10)), snapshot(ACTIVE_CART, lines(100, 10))));
+        try (RandomAccessFile raw = new RandomAccessFile(file.getBaseFile(), "rw")) {
+            raw.setLength(raw.length() - 7);
+        }
+
+        Class_CartStore.SavedCarts saved = Class_CartStore.read(file, pricingEngine, Class_ProductCatalog.Menu.EMPTY);
+
+        assertTrue(saved.carts.isEmpty());
+    }
+
+    @Test
+    public void missingOrUnknownFile_restoresNothing() throws IOException {
+        assertTrue(Class_CartStore.read(file, pricingEngine, Class_ProductCatalog.Menu.EMPTY).carts.isEmpty());
+
+        FileOutputStream stream = file.startWrite();
+        stream.write(new byte[]{'n', 'o', 't', ' ', 'a', ' ', 'c', 'a', 'r', 't'});
+        file.finishWrite(stream);
+
+        assertTrue(Class_CartStore.read(file, pricingEngine, Class_ProductCatalog.Menu.EMPTY).carts.isEmpty());
+    }
+
+    // Lines with distinct products, a mix of modifiers and prices with centavos
+    private static List<Class_CartItem> lines(int firstProductId, int count) {
+        int[] modifiers = {Class_Modifiers.NONE, Class_Modifiers.SIZE_LARGE, Class_Modifiers.EXTRA_SHOT | Class_Modifiers.OAT_MILK};
+        List<Class_CartItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new Class_CartItem(firstProductId + i, modifiers[i % modifiers.length], "Product " + (firstProductId + i),
+                    1 + i % 4, Class_Money.ofCentavos(6000 + i * 125), R.drawable.ic_launcher_foreground));
+        }
+        return items;
+    }
+
+    private static Class_CartManager.Snapshot snapshot(int cartNumber, List<Class_CartItem> items) {
+        Class_Money subtotal = Class_Money.ZERO;
+        int quantity = 0;
+        for (Class_CartItem item : items) {
+            subtotal = subtotal.plus(item.getTotalPrice());
+            quantity += item.getQuantity();
+        }
+        return new Class_CartManager.Snapshot(cartNumber, cartNumber == ACTIVE_CART, items,
+                Collections.<Class_PriceAdjustment>emptyList(), subtotal, subtotal, quantity, 1);
+    }
+
+    private static void assertLineEquals(Class_CartItem expected, Class_CartItem actual) {
+        assertEquals(expected.getProductId(), actual.getProductId());
+        assertEquals(expected.getModifiers(), actual.getModifiers());
+        assertEquals(expected.getItemName(), actual.getItemName());
+        assertEquals(expected.getQuantity(), actual.getQuantity());
+        assertEquals(expected.getOriginalPrice(), actual.getOriginalPrice());
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.cafeeight;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that every checkout submitted to the group-commit queue completes,
+ * including those that race the queue being shut down.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class CheckoutQueueTest {
+
+    private static final int SUBMITTER_THREADS = 4;
+    private static final int ORDERS_PER_SUBMITTER = 200;
+    private static final long COMPLETION_TIMEOUT_SECONDS = 5;
+
+    private DatabaseHelper databaseHelper;
+    private Class_CheckoutQueue checkoutQueue;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        // A null name gives an in-memory database
+        databaseHelper = new DatabaseHelper(ApplicationProvider.getApplicationContext(), null);
+        checkoutQueue = new Class_CheckoutQueue(databaseHelper, 16, 10);
+        executor = Executors.newFixedThreadPool(SUBMITTER_THREADS);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        checkoutQueue.shutdown();
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        databaseHelper.close();
+    }
+
+    @Test
+    public void submit_completesWithTheNewOrderId() throws Exception {
+        long orderId = checkoutQueue.submit(newOrder()).get(COMPLETION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertTrue(orderId > 0);
+    }
+
+    @Test
+    public void submitAfterShutdown_completesExceptionally() throws Exception {
+        checkoutQueue.shutdown();
+
+        CompletableFuture<Long> result = checkoutQueue.submit(newOrder());
+
+        assertTrue(result.isCompletedExceptionally());
+    }
+
+    @Test
+    public void submitsRacingShutdown_allComplete() throws Exception {
+        CountDownLatch started = new CountDownLatch(SUBMITTER_THREADS);
+        List<Future<List<CompletableFuture<Long>>>> submitters = new ArrayList<>();
+        for (int t = 0; t < SUBMITTER_THREADS; t++) {
+            submitters.add(executor.submit(() -> {
+                List<CompletableFuture<Long>> results = new ArrayList<>(ORDERS_PER_SUBMITTER);
+                started.countDown();
+                for (int i = 0; i < ORDERS_PER_SUBMITTER; i++) {
+                    results.add(checkoutQueue.submit(newOrder()));
+                }
+                return results;
+            }));
+        }
+        started.await();
+        checkoutQueue.shutdown();
+
+        for (Future<List<CompletableFuture<Long>>> submitter : submitters) {
+            for (CompletableFuture<Long> result : submitter.get()) {
+                try {
+                    assertTrue(result.get(COMPLETION_TIMEOUT_SECONDS, TimeUnit.SECONDS) > 0);
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof IllegalStateException);
+                } catch (TimeoutException e) {
+                    fail("A checkout submitted while the queue shut down never completed");
+                }
+            }
+        }
+    }
+
+    private static Class_CheckoutOrder newOrder() {
+        Class_CartItem item = new Class_CartItem(101, "Americano", 1, Class_Money.ofPesos(80), 0);
+        return new Class_CheckoutOrder(Class_Money.ofPesos(80), 1, Collections.singletonList(item));
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.cafeeight;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Query latency regression suite. Fills an in-memory database with a
+ * seeded order history at each configured size, then checks that every
+ * read query stays within its latency budget and is served by an index.
+ * Sizes come from the cafeeight.perfSizes Gradle property.
+ */
+@RunWith(ParameterizedRobolectricTestRunner.class)
+@Config(sdk = 33)
+public class DatabaseQueryLatencyTest {
+
+    private static final long SEED = 8L;
+    private static final int HISTORY_DAYS = 365;
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 21;
+
+    // Median latency budgets in milliseconds; index-backed queries should not grow with history size
+    private static final double TODAY_SALES_BUDGET_MS = 20;
+    private static final double ROLLUP_BUDGET_MS = 5;
+    private static final double ORDERS_PAGE_BUDGET_MS = 10;
+    private static final double NEWER_ORDERS_BUDGET_MS = 5;
+
+    private final int orderCount;
+    private DatabaseHelper databaseHelper;
+
+    public DatabaseQueryLatencyTest(int orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "{0} orders")
+    public static List<Object[]> sizes() {
+        List<Object[]> sizes = new ArrayList<>();
+        for (String size : System.getProperty("cafeeight.perfSizes", "10000,100000").split(",")) {
+            sizes.add(new Object[]{Integer.parseInt(size.trim())});
+        }
+        return sizes;
+    }
+
+    @Before
+    public void setUp() {
+        // A null name gives an in-memory database
+        databaseHelper = new DatabaseHelper(ApplicationProvider.getApplicationContext(), null);
+        new OrderHistoryGenerator(SEED).populate(databaseHelper, orderCount, HISTORY_DAYS);
+    }
+
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+
+    @Test
+    public void readQueries_stayWithinBudgetAndUseIndexes() {
+        long today = DatabaseHelper.toEpochDay(System.currentTimeMillis());
+        long currentHour = DatabaseHelper.toEpochHour(System.currentTimeMillis());
+        long newestOrderId = databaseHelper.getConfirmedOrdersPage(Long.MAX_VALUE, 1).get(0).getOrderId();
+        long middleOrderId = newestOrderId / 2;
+        List<String> failures = new ArrayList<>();
+
+        checkQuery(failures, "today's sales", DatabaseHelper.QUERY_TODAY_SALES,
+                new String[]{String.valueOf(today)}, TODAY_SALES_BUDGET_MS,
+                () -> databaseHelper.getTodaySalesData());
+        checkQuery(failures, "weekly rollup", DatabaseHelper.QUERY_DAILY_SALES,
+                new String[]{String.valueOf(today - 6), String.valueOf(today)}, ROLLUP_BUDGET_MS,
+                () -> databaseHelper.getDailySalesTotals(today - 6, 7));
+        checkQuery(failures, "hourly rollup", DatabaseHelper.QUERY_HOURLY_SALES,
+                new String[]{String.valueOf(currentHour - 23), String.valueOf(currentHour)}, ROLLUP_BUDGET_MS,
+                () -> databaseHelper.getHourlySalesTotals(currentHour - 23, 24));
+        checkQuery(failures, "first orders page", DatabaseHelper.QUERY_ORDERS_PAGE,
+                new String[]{String.valueOf(Long.MAX_VALUE), "50"}, ORDERS_PAGE_BUDGET_MS,
+                () -> databaseHelper.getConfirmedOrdersPage(Long.MAX_VALUE, 50));
+        checkQuery(failures, "deep orders page", DatabaseHelper.QUERY_ORDERS_PAGE,
+                new String[]{String.valueOf(middleOrderId), "50"}, ORDERS_PAGE_BUDGET_MS,
+                () -> databaseHelper.getConfirmedOrdersPage(middleOrderId, 50));
+        checkQuery(failures, "newer orders", DatabaseHelper.QUERY_ORDERS_NEWER_THAN,
+                new String[]{String.valueOf(newestOrderId - 5)}, NEWER_ORDERS_BUDGET_MS,
+                () -> databaseHelper.getOrdersNewerThan(newestOrderId - 5));
+
+        assertTrue(orderCount + " orders:\n" + String.join("\n", failures), failures.isEmpty());
+    }
+
+    private void checkQuery(List<String> failures, String name, String sql, String[] args, double budgetMs, Runnable query) {
+        List<String> plan = explainQueryPlan(sql, args);
+        for (String step : plan) {
+            // A SCAN without an index means the query reads the whole table
+            if (step.startsWith("SCAN") && !step.contains("USING")) {
+                failures.add(name + " does not use an index: " + plan);
+                break;
+            }
+        }
+
+        double medianMs = medianMillis(query);
+        if (medianMs > budgetMs) {
+            // Reported through the failure message only, with the plan that produced the time
+            failures.add(String.format("%s took %.3f ms, budget is %.1f ms, plan %s", name, medianMs, budgetMs, plan));
+        }
+    }
+
+    private List<String> explainQueryPlan(String sql, String[] args) {
+        SQLiteDatabase db = databaseHelper.getReadableDatabase();
+        List<String> plan = new ArrayList<>();
+        Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + sql, args);
+        int detailIndex = cursor.getColumnIndexOrThrow("detail");
+        while (cursor.moveToNext()) {
+            plan.add(cursor.getString(detailIndex));
+        }
+        cursor.close();
+        return plan;
+    }
+
+    private static double medianMillis(Runnable query) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            query.run();
+        }
+        long[] samples = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            query.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[MEASURED_RUNS / 2] / 1e6;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.cafeeight;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.widget.ImageView;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks how the image loader picks its subsampling and cache keys, and that
+ * bitmaps dropped from the cache are reused only once no view shows them.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ImageLoaderTest {
+
+    private static final int SIDE = 32;
+    private static final int BITMAP_BYTES = SIDE * SIDE * 4;
+
+    private Context context;
+    private Class_ImageLoader loader;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        // Room for two bitmaps, so caching a third evicts the oldest
+        loader = new Class_ImageLoader(context, 2 * BITMAP_BYTES);
+    }
+
+    @Test
+    public void sampleSize_keepsBothSidesAtLeastTheTargetSize() {
+        // A 500 px product image shown in a 257 px cell cannot be halved without going under the target
+        assertEquals(1, Class_ImageLoader.calculateInSampleSize(500, 500, 257, 252));
+        assertEquals(2, Class_ImageLoader.calculateInSampleSize(500, 500, 210, 200));
+        assertEquals(4, Class_ImageLoader.calculateInSampleSize(2000, 1000, 300, 200));
+        // The shorter side decides
+        assertEquals(2, Class_ImageLoader.calculateInSampleSize(2000, 500, 100, 200));
+        assertEquals(1, Class_ImageLoader.calculateInSampleSize(100, 100, 300, 300));
+    }
+
+    @Test
+    public void cacheKey_separatesResourcesAndTargetSizes() {
+        long cell = Class_ImageLoader.cacheKey(0x7f080001, 257, 252);
+        assertNotEquals(cell, Class_ImageLoader.cacheKey(0x7f080002, 257, 252));
+        assertNotEquals(cell, Class_ImageLoader.cacheKey(0x7f080001, 226, 210));
+        assertNotEquals(cell, Class_ImageLoader.cacheKey(0x7f080001, 252, 257));
+        assertEquals(cell, Class_ImageLoader.cacheKey(0x7f080001, 257, 252));
+    }
+
+    @Test
+    public void evictedBitmap_noViewShows_isReused() {
+        Bitmap first = cacheBitmap(1);
+        cacheBitmap(2);
+        cacheBitmap(3);
+
+        assertSame(first, loader.takeReusable(BITMAP_BYTES));
+        assertNull(loader.takeReusable(BITMAP_BYTES));
+    }
+
+    @Test
+    public void evictedBitmap_isReusedOnlyAfterEveryViewShowingItIsCleared() {
+        Bitmap first = cacheBitmap(1);
+        ImageView cell = new ImageView(context);
+        ImageView cartRow = new ImageView(context);
+        loader.show(cell, first);
+        loader.show(cartRow, first);
+
+        cacheBitmap(2);
+        cacheBitmap(3);
+        assertNull("Evicted while on screen", loader.takeReusable(BITMAP_BYTES));
+
+        loader.clear(cell);
+        assertNull("Still shown in the cart", loader.takeReusable(BITMAP_BYTES));
+        assertNull(cell.getDrawable());
+
+        loader.clear(cartRow);
+        assertSame(first, loader.takeReusable(BITMAP_BYTES));
+    }
+
+    @Test
+    public void evictedBitmap_viewDroppedWithoutClear_isReused() {
+        Bitmap first = cacheBitmap(1);
+        ImageView cell = new ImageView(context);
+        loader.show(cell, first);
+        WeakReference<ImageView> cellReference = new WeakReference<>(cell);
+        cell = null;
+
+        // A row lost without a recycle callback must not pin its bitmap
+        for (int i = 0; i < 20 && cellReference.get() != null; i++) {
+            System.gc();
+        }
+        assumeTrue("The view was not collected", cellReference.get() == null);
+
+        cacheBitmap(2);
+        cacheBitmap(3);
+        assertSame(first, loader.takeReusable(BITMAP_BYTES));
+    }
+
+    // Caches a new bitmap as if a decode for a view that has since moved on had finished
+    private Bitmap cacheBitmap(int imageResourceId) {
+        Bitmap bitmap = Bitmap.createBitmap(SIDE, SIDE, Bitmap.Config.ARGB_8888);
+        loader.deliver(Class_ImageLoader.cacheKey(imageResourceId, SIDE, SIDE), imageResourceId, bitmap);
+        return bitmap;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.cafeeight;
+
+import android.database.MatrixCursor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the CSV quoting and JSON escaping of exported orders, and that a
+ * failed export leaves no partial file behind.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class OrderExporterTest {
+
+    private static final String[] COLUMNS = {"order_id", "item_name", "total"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void csv_quotesOnlyValuesWithSeparatorsQuotesOrLineBreaks() throws IOException {
+        MatrixCursor cursor = new MatrixCursor(COLUMNS);
+        cursor.addRow(new Object[]{1L, "Latte", 90.5});
+        cursor.addRow(new Object[]{2L, "Mocha, large", 120.0});
+        cursor.addRow(new Object[]{3L, "The \"Special\"", null});
+        cursor.addRow(new Object[]{4L, "Two\nlines", 75.25});
+        File output = folder.newFile("orders.csv");
+
+        long rows = Class_OrderExporter.export(cursor, 4, output, Class_OrderExporter.Format.CSV, null);
+
+        assertEquals(4, rows);
+        assertTrue(cursor.isClosed());
+        assertEquals("order_id,item_name,total\r\n"
+                + "1,Latte,90.5\r\n"
+                + "2,\"Mocha, large\",120.0\r\n"
+                + "3,\"The \"\"Special\"\"\",\r\n"
+                + "4,\"Two\nlines\",75.25\r\n", read(output));
+    }
+
+    @Test
+    public void json_escapesQuotesBackslashesAndControlCharacters() throws IOException {
+        MatrixCursor cursor = new MatrixCursor(COLUMNS);
+        cursor.addRow(new Object[]{1L, "Mocha, \"large\"", 120.0});
+        cursor.addRow(new Object[]{2L, "Back\\slash\nTab\there\u0001", null});
+        File output = folder.newFile("orders.json");
+
+        Class_OrderExporter.export(cursor, 2, output, Class_OrderExporter.Format.JSON, null);
+
+        assertEquals("[\n"
+                + "  {\"order_id\": 1, \"item_name\": \"Mocha, \\\"large\\\"\", \"total\": 120.0},\n"
+                + "  {\"order_id\": 2, \"item_name\": \"Back\\\\slash\\nTab\\there\\u0001\", \"total\": null}\n"
+                + "]\n", read(output));
+    }
+
+    @Test
+    public void emptyResult_writesHeaderOrEmptyArray() throws IOException {
+        File csv = folder.newFile("empty.csv");
+        File json = folder.newFile("empty.json");
+
+        assertEquals(0, Class_OrderExporter.export(new MatrixCursor(COLUMNS), 0, csv, Class_OrderExporter.Format.CSV, null));
+        assertEquals(0, Class_OrderExporter.export(new MatrixCursor(COLUMNS), 0, json, Class_OrderExporter.Format.JSON, null));
+
+        assertEquals("order_id,item_name,total\r\n", read(csv));
+        // An empty array, still valid JSON
+        assertEquals("[\n]\n", read(json));
+    }
+
+    @Test
+    public void failureMidExport_leavesNoPartialFile() throws IOException {
+        File output = new File(folder.getRoot(), "orders.csv");
+        File tempFile = new File(output.getPath() + ".tmp");
+        // The cursor fails after a few rows, e.g. when the database is closed under it
+        MatrixCursor cursor = new MatrixCursor(COLUMNS) {
+            @Override
+            public long getLong(int column) {
+                if (getPosition() == 2) {
+                    throw new IllegalStateException("Cursor failed");
+                }
+                return super.getLong(column);
+            }
+        };
+        for (long orderId = 1; orderId <= 5; orderId++) {
+            cursor.addRow(new Object[]{orderId, "Latte", 90.0});
+        }
+
+        try {
+            Class_OrderExporter.export(cursor, 5, output, Class_OrderExporter.Format.CSV, null);
+            fail("The cursor failure should be rethrown");
+        } catch (IllegalStateException expected) {
+            // The caller reports the failure
+        }
+
+        assertTrue(cursor.isClosed());
+        assertFalse(tempFile.exists());
+        assertFalse(output.exists());
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
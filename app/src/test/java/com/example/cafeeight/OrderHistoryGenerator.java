@@ -0,0 +1,95 @@
+package com.example.cafeeight;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills a database with a deterministic, realistic order history: orders
+ * spread over the opening hours of the last dayCount days, each with one
+ * to four lines from the menu. The same seed always produces the same data.
+ */
+final class OrderHistoryGenerator {
+
+    private static final int[] ITEM_IDS = {
+            101, 102, 103,
+            201, 202, 203, 204,
+            301, 302, 303, 304,
+            401, 402, 403, 404,
+            501, 502, 503};
+    private static final String[] ITEM_NAMES = {
+            "Brewed", "Latte", "Cappuccino",
+            "Vietnamese Coffee", "Iced Dark Mocha", "Iced Vanilla Cream Latte", "Iced Hazelnut Latte",
+            "Vanilla Bean Frappe", "Matcha Frappe", "Strawberry Frappe", "Blueberry Frappe",
+            "House Blend Iced Tea", "Matcha Latte", "Cucumber Lemonade", "Strawberry Soda",
+            "Vanilla Protein Shake", "Strawberry Protein Shake", "Protein Fusion Fuel"};
+    private static final int[] ITEM_PRICES = {
+            55, 90, 90,
+            75, 90, 95, 95,
+            115, 155, 155, 155,
+            55, 105, 85, 70,
+            115, 125, 145};
+
+    private static final long OPENING_HOUR_MILLIS = TimeUnit.HOURS.toMillis(7);
+    private static final long OPEN_DURATION_MILLIS = TimeUnit.HOURS.toMillis(14);
+    private static final int BATCH_SIZE = 1000;
+
+    private final Random random;
+
+    OrderHistoryGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Writes orderCount orders spread over the dayCount days ending today,
+     * in timestamp order so order ids grow with time like they do in production.
+     */
+    void populate(DatabaseHelper databaseHelper, int orderCount, int dayCount) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        calendar.add(Calendar.DAY_OF_MONTH, -(dayCount - 1));
+        long firstMidnight = calendar.getTimeInMillis();
+
+        List<Class_CheckoutOrder> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < orderCount; i++) {
+            // The whole part of the position is the day, the fraction is how far into opening hours
+            double position = (double) i * dayCount / orderCount;
+            long dayIndex = (long) position;
+            double fractionOfDay = position - dayIndex;
+            long timestamp = firstMidnight + TimeUnit.DAYS.toMillis(dayIndex)
+                    + OPENING_HOUR_MILLIS + (long) (fractionOfDay * OPEN_DURATION_MILLIS);
+
+            batch.add(newOrder(timestamp));
+            if (batch.size() == BATCH_SIZE) {
+                databaseHelper.insertOrders(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            databaseHelper.insertOrders(batch);
+        }
+    }
+
+    private Class_CheckoutOrder newOrder(long timestamp) {
+        int lineCount = 1 + random.nextInt(4);
+        List<Class_CartItem> cartItems = new ArrayList<>(lineCount);
+        int totalItems = 0;
+        Class_Money totalAmount = Class_Money.ZERO;
+
+        for (int line = 0; line < lineCount; line++) {
+            int item = random.nextInt(ITEM_NAMES.length);
+            int quantity = random.nextInt(10) == 0 ? 2 : 1;
+            Class_CartItem cartItem = new Class_CartItem(ITEM_IDS[item], ITEM_NAMES[item], quantity, Class_Money.ofPesos(ITEM_PRICES[item]), 0);
+            cartItems.add(cartItem);
+            totalItems += quantity;
+            totalAmount = totalAmount.plus(cartItem.getTotalPrice());
+        }
+
+        return new Class_CheckoutOrder(totalAmount, totalItems, cartItems, timestamp);
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.cafeeight;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the pricing rules and the cost of re-pricing a cart. A change to
+ * one line must only evaluate the rules that read that product, and with
+ * dozens of active rules a typical cart change must still be priced well
+ * under a millisecond.
+ */
+public class PricingEngineBenchmarkTest {
+
+    private static final long SEED = 17L;
+    private static final int PRODUCT_COUNT = 24;
+    private static final int RULE_COUNT = 48;
+    private static final int WARMUP_MUTATIONS = 20000;
+    private static final int MEASURED_MUTATIONS = 20000;
+    // Budget for the median cart change, including every rule it triggers. The p99 is only reported, in the failure message:
+    // on a shared CI machine it measures GC pauses and scheduling more than the pricing code.
+    private static final long MEDIAN_BUDGET_NANOS = 1_000_000;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Before
+    public void setUp() {
+        clock.set(atLocalHour(10));
+    }
+
+    @Test
+    public void bundle_groupsMostExpensiveUnitsFirst() {
+        Class_PricingEngine engine = engineOf(new Class_PricingRule.Bundle("frappe_pair", "Any 2 frappes for ₱280",
+                2, Class_Money.ofPesos(280), 301, 302, 303));
+        Class_Cart cart = new Class_Cart(1, engine);
+
+        cart.add(item(301, 1, 115));
+        assertEquals(Class_Money.ofPesos(115), cart.getTotalAmount());
+
+        // 155 + 155 makes a pair that costs more than 280; the 115 frappe is left over
+        cart.add(item(302, 2, 155));
+        assertEquals(Class_Money.ofPesos(425), cart.getSubtotal());
+        assertEquals(Class_Money.ofPesos(395), cart.getTotalAmount());
+
+        List<Class_PriceAdjustment> adjustments = cart.copyAdjustments();
+        assertEquals(1, adjustments.size());
+        assertEquals("frappe_pair", adjustments.get(0).getRuleId());
+        assertEquals(Class_Money.ofPesos(-30), adjustments.get(0).getAmount());
+
+        // 115 + 155 is already cheaper than the bundle, so no discount applies
+        cart.setQuantity(key(302), 1);
+        assertEquals(Class_Money.ofPesos(270), cart.getTotalAmount());
+        assertTrue(cart.copyAdjustments().isEmpty());
+    }
+
+    @Test
+    public void happyHour_appliesOnlyInsideItsWindow() {
+        Class_PricingEngine engine = engineOf(new Class_PricingRule.HappyHour("happy_hour", "Happy Hour",
+                20, 14, 17, 201, 202));
+        Class_Cart cart = new Class_Cart(1, engine);
+
+        cart.add(item(201, 1, 75));
+        cart.add(item(202, 1, 90));
+        assertEquals(Class_Money.ofPesos(165), cart.getTotalAmount());
+
+        clock.set(atLocalHour(15));
+        assertTrue(cart.repriceTimeDependentRules());
+        assertEquals(Class_Money.ofPesos(132), cart.getTotalAmount());
+
+        clock.set(atLocalHour(17));
+        assertTrue(cart.repriceTimeDependentRules());
+        assertEquals(Class_Money.ofPesos(165), cart.getTotalAmount());
+    }
+
+    @Test
+    public void upcharge_addsPerUnitOfLinesWithTheModifier() {
+        Class_PricingEngine engine = engineOf(new Class_PricingRule.Upcharge("large", "Large",
+                Class_Money.ofPesos(20), Class_Modifiers.SIZE_LARGE, 101));
+        Class_Cart cart = new Class_Cart(1, engine);
+
+        cart.add(item(101, 2, 55));
+        cart.add(new Class_CartItem(101, Class_Modifiers.SIZE_LARGE, "Brewed", 3, Class_Money.ofPesos(55), 0));
+        assertEquals(Class_Money.ofPesos(335), cart.getTotalAmount());
+
+        cart.remove(Class_Modifiers.lineKey(101, Class_Modifiers.SIZE_LARGE));
+        assertEquals(Class_Money.ofPesos(110), cart.getTotalAmount());
+    }
+
+    @Test
+    public void upchargeWithoutProducts_appliesToEveryLine() {
+        CountingRule latteRule = new CountingRule(102);
+        Class_PricingEngine engine = engineOf(latteRule, new Class_PricingRule.Upcharge("large", "Large",
+                Class_Money.ofPesos(20), Class_Modifiers.SIZE_LARGE));
+        Class_Cart cart = new Class_Cart(1, engine);
+
+        // 999 is listed by no rule, as with a product added by a newer menu
+        cart.add(new Class_CartItem(102, Class_Modifiers.SIZE_LARGE, "Latte", 1, Class_Money.ofPesos(90), 0));
+        cart.add(new Class_CartItem(999, Class_Modifiers.SIZE_LARGE, "New drink", 2, Class_Money.ofPesos(100), 0));
+        assertEquals(Class_Money.ofPesos(350), cart.getTotalAmount());
+        assertEquals(1, latteRule.evaluations);
+    }
+
+    @Test
+    public void everyLineUpcharge_followsAddsQuantityChangesAndRemovals() {
+        Class_PricingEngine engine = engineOf(new Class_PricingRule.Upcharge("large", "Large",
+                Class_Money.ofPesos(20), Class_Modifiers.SIZE_LARGE));
+        Class_Cart cart = new Class_Cart(1, engine);
+        long largeLatte = Class_Modifiers.lineKey(102, Class_Modifiers.SIZE_LARGE);
+
+        cart.add(item(101, 2, 55));
+        cart.add(new Class_CartItem(102, Class_Modifiers.SIZE_LARGE, "Latte", 1, Class_Money.ofPesos(90), 0));
+        cart.add(new Class_CartItem(102, Class_Modifiers.SIZE_LARGE, "Latte", 2, Class_Money.ofPesos(90), 0));
+        assertEquals(Class_Money.ofPesos(440), cart.getTotalAmount());
+
+        cart.setQuantity(largeLatte, 1);
+        assertEquals(Class_Money.ofPesos(220), cart.getTotalAmount());
+        cart.remove(largeLatte);
+        assertEquals(Class_Money.ofPesos(110), cart.getTotalAmount());
+        cart.restoreLine(largeLatte, new Class_CartItem(102, Class_Modifiers.SIZE_LARGE, "Latte", 4, Class_Money.ofPesos(90), 0));
+        assertEquals(Class_Money.ofPesos(550), cart.getTotalAmount());
+        assertRunningTotalsMatch(cart, engine);
+    }
+
+    @Test
+    public void priceLine_matchesACartHoldingOnlyThatLine() {
+        clock.set(atLocalHour(15));
+        Class_PricingEngine engine = engineOf(
+                new Class_PricingRule.HappyHour("happy_hour", "Happy Hour", 20, 14, 17, 201),
+                new Class_PricingRule.Bundle("frappe_pair", "Any 2 frappes for ₱280", 2, Class_Money.ofPesos(280), 301),
+                new Class_PricingRule.Upcharge("large", "Large", Class_Money.ofPesos(20), Class_Modifiers.SIZE_LARGE));
+        int[] productIds = {101, 201, 301};
+        int[] modifierChoices = {Class_Modifiers.NONE, Class_Modifiers.SIZE_LARGE,
+                Class_Modifiers.SIZE_LARGE | Class_Modifiers.OAT_MILK};
+
+        for (int productId : productIds) {
+            for (int modifiers : modifierChoices) {
+                for (int quantity = 1; quantity <= 3; quantity++) {
+                    Class_Money unitPrice = Class_Money.ofPesos(155).plus(Class_Modifiers.getAddOnPrice(modifiers));
+                    Class_Cart cart = new Class_Cart(1, engine);
+                    cart.add(new Class_CartItem(productId, modifiers, "Product", quantity, unitPrice, 0));
+                    assertEquals(cart.getTotalAmount().getCentavos(),
+                            engine.priceLine(productId, modifiers, unitPrice.getCentavos(), quantity));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void modifiers_keepSeparateLinesForTheSameProduct() {
+        Class_Cart cart = new Class_Cart(1, engineOf());
+        int largeWithShot = Class_Modifiers.SIZE_LARGE | Class_Modifiers.EXTRA_SHOT;
+
+        cart.add(item(102, 1, 90));
+        cart.add(new Class_CartItem(102, largeWithShot, "Latte", 1, Class_Money.ofPesos(110), 0));
+        cart.add(new Class_CartItem(102, largeWithShot, "Latte", 2, Class_Money.ofPesos(110), 0));
+
+        assertEquals(2, cart.getLines(102).size());
+        assertEquals(3, cart.get(Class_Modifiers.lineKey(102, largeWithShot)).getQuantity());
+        assertEquals(1, cart.get(key(102)).getQuantity());
+        assertEquals(Class_Money.ofPesos(420), cart.getTotalAmount());
+        assertEquals("Large, Extra shot", Class_Modifiers.describe(largeWithShot));
+    }
+
+    @Test
+    public void lineChange_evaluatesOnlyRulesReadingThatProduct() {
+        CountingRule latteRule = new CountingRule(102);
+        CountingRule frappeRule = new CountingRule(301);
+        Class_Cart cart = new Class_Cart(1, engineOf(latteRule, frappeRule));
+
+        cart.add(item(102, 1, 90));
+        cart.setQuantity(key(102), 3);
+        cart.add(item(101, 1, 55));
+
+        assertEquals(2, latteRule.evaluations);
+        assertEquals(0, frappeRule.evaluations);
+    }
+
+    @Test
+    public void lineChange_staysWithinBudgetWithDozensOfRules() {
+        Random random = new Random(SEED);
+        Class_PricingEngine engine = new Class_PricingEngine(randomRules(random), clock::get);
+        Class_Cart cart = new Class_Cart(1, engine);
+        for (int productId = 0; productId < PRODUCT_COUNT; productId++) {
+            cart.add(item(productId, 1 + random.nextInt(3), 50 + random.nextInt(100)));
+        }
+
+        for (int i = 0; i < WARMUP_MUTATIONS; i++) {
+            cart.setQuantity(key(random.nextInt(PRODUCT_COUNT)), 1 + random.nextInt(6));
+        }
+
+        long[] samples = new long[MEASURED_MUTATIONS];
+        for (int i = 0; i < MEASURED_MUTATIONS; i++) {
+            long lineKey = key(random.nextInt(PRODUCT_COUNT));
+            int quantity = 1 + random.nextInt(6);
+            long start = System.nanoTime();
+            cart.setQuantity(lineKey, quantity);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        long median = samples[samples.length / 2];
+        long p99 = samples[samples.length * 99 / 100];
+        assertTrue(String.format("Cart change with %d rules: median %d ns over budget (p99 %d ns)",
+                RULE_COUNT, median, p99), median < MEDIAN_BUDGET_NANOS);
+        assertRunningTotalsMatch(cart, engine);
+    }
+
+    // The running adjustments must equal a full evaluation of every rule
+    private void assertRunningTotalsMatch(Class_Cart cart, Class_PricingEngine engine) {
+        long expectedCentavos = cart.getSubtotal().getCentavos();
+        for (int ruleIndex = 0; ruleIndex < engine.getRuleCount(); ruleIndex++) {
+            expectedCentavos += engine.getRule(ruleIndex).evaluate(cart, clock.get());
+        }
+        assertEquals(expectedCentavos, cart.getTotalAmount().getCentavos());
+    }
+
+    // A mix of happy hours, bundles and upcharges, each reading two to five products
+    private static List<Class_PricingRule> randomRules(Random random) {
+        List<Class_PricingRule> rules = new ArrayList<>();
+        List<Integer> allProductIds = new ArrayList<>();
+        for (int productId = 0; productId < PRODUCT_COUNT; productId++) {
+            allProductIds.add(productId);
+        }
+        for (int i = 0; i < RULE_COUNT; i++) {
+            Collections.shuffle(allProductIds, random);
+            int[] productIds = new int[2 + random.nextInt(4)];
+            for (int j = 0; j < productIds.length; j++) {
+                productIds[j] = allProductIds.get(j);
+            }
+            switch (i % 3) {
+                case 0:
+                    rules.add(new Class_PricingRule.HappyHour("rule" + i, "Rule " + i, 10 + random.nextInt(20), 8, 12, productIds));
+                    break;
+                case 1:
+                    rules.add(new Class_PricingRule.Bundle("rule" + i, "Rule " + i, 2 + random.nextInt(2),
+                            Class_Money.ofPesos(100 + random.nextInt(100)), productIds));
+                    break;
+                default:
+                    rules.add(new Class_PricingRule.Upcharge("rule" + i, "Rule " + i, Class_Money.ofPesos(5 + random.nextInt(20)),
+                            Class_Modifiers.NONE, productIds));
+                    break;
+            }
+        }
+        return rules;
+    }
+
+    private Class_PricingEngine engineOf(Class_PricingRule... rules) {
+        return new Class_PricingEngine(Arrays.asList(rules), clock::get);
+    }
+
+    private static long key(int productId) {
+        return Class_Modifiers.lineKey(productId, Class_Modifiers.NONE);
+    }
+
+    private static Class_CartItem item(int productId, int quantity, int pesos) {
+        return new Class_CartItem(productId, "Product " + productId, quantity, Class_Money.ofPesos(pesos), 0);
+    }
+
+    private static long atLocalHour(int hour) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2024, Calendar.MARCH, 1, hour, 30, 0);
+        return calendar.getTimeInMillis();
+    }
+
+    private static class CountingRule extends Class_PricingRule {
+        int evaluations;
+
+        CountingRule(int productId) {
+            super("counting" + productId, "Counting", productId);
+        }
+
+        @Override
+        long evaluate(Class_Cart cart, long now) {
+            evaluations++;
+            return 0;
+        }
+
+        @Override
+        long evaluateLine(int modifiers, long unitCentavos, int quantity, long now) {
+            return 0;
+        }
+    }
+}
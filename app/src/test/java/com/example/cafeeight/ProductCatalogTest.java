@@ -0,0 +1,102 @@
+package com.example.cafeeight;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.json.JSONException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that menu files are parsed into the catalog's lookups and that a
+ * reload only replaces the menu with a newer version.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class ProductCatalogTest {
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+    }
+
+    @Test
+    public void bundledMenu_indexesProductsByIdAndCategory() throws Exception {
+        Class_ProductCatalog.Menu menu = parse(readBundledMenu());
+
+        assertEquals(18, menu.getProductCount());
+        assertEquals(Arrays.asList("hot_coffee", "iced_coffee", "frappe", "non_coffee", "protein_shake"),
+                new ArrayList<>(menu.getCategoryNames().keySet()));
+
+        Class_Product latte = menu.getProduct(102);
+        assertEquals("Latte", latte.getName());
+        assertEquals("hot_coffee", latte.getCategoryId());
+        assertEquals(Class_Money.ofPesos(90), latte.getPrice());
+        assertEquals(R.drawable.product_latte, latte.getImageResourceId());
+
+        assertEquals(4, menu.getProducts("frappe").size());
+        assertEquals(301, menu.getProducts("frappe").get(0).getProductId());
+        assertNull(menu.getProduct(999));
+        assertTrue(menu.getProducts("pastries").isEmpty());
+    }
+
+    @Test
+    public void offer_replacesMenuOnlyWithHigherVersion() throws Exception {
+        Class_ProductCatalog catalog = Class_ProductCatalog.getInstance(context);
+        // The application started loading the bundled menu in the background
+        int currentVersion = catalog.awaitMenu().getVersion();
+
+        Class_ProductCatalog.Menu newer = parse(menuJson(currentVersion + 1, 6000));
+        assertTrue(catalog.offer(newer));
+        assertSame(newer, catalog.getMenu());
+        assertEquals(Class_Money.ofPesos(60), catalog.getMenu().getProduct(101).getPrice());
+
+        assertFalse(catalog.offer(parse(menuJson(currentVersion + 1, 7000))));
+        assertFalse(catalog.offer(parse(menuJson(currentVersion, 7000))));
+        assertSame(newer, catalog.getMenu());
+    }
+
+    @Test(expected = JSONException.class)
+    public void duplicateProductId_isRejected() throws Exception {
+        parse("{\"version\": 2, \"categories\": [{\"id\": \"hot_coffee\", \"name\": \"Hot Coffee\", \"products\": ["
+                + "{\"id\": 101, \"name\": \"Brewed\", \"priceCentavos\": 5500},"
+                + "{\"id\": 101, \"name\": \"Latte\", \"priceCentavos\": 9000}]}]}");
+    }
+
+    private Class_ProductCatalog.Menu parse(String json) throws JSONException {
+        return Class_ProductCatalog.parse(json, context.getResources(), context.getPackageName());
+    }
+
+    private static String menuJson(int version, long brewedCentavos) {
+        return "{\"version\": " + version + ", \"categories\": [{\"id\": \"hot_coffee\", \"name\": \"Hot Coffee\", "
+                + "\"products\": [{\"id\": 101, \"name\": \"Brewed\", \"priceCentavos\": " + brewedCentavos
+                + ", \"image\": \"prodcut_brewed\"}]}]}";
+    }
+
+    private String readBundledMenu() throws IOException {
+        try (InputStream in = context.getAssets().open("menu.json")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}